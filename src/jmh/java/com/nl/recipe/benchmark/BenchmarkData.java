@@ -0,0 +1,68 @@
+package com.nl.recipe.benchmark;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Type BenchmarkData builds the catalogs and the Hibernate bootstrap shared by the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private static final String[] INGREDIENTS = {"Flour", "Sugar", "Salt", "Pepper", "Butter", "Egg", "Milk", "Banana",
+            "Paneer", "Rice", "Tomato", "Onion", "Garlic", "Ginger", "Chilli", "Coriander"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * A catalog of saved looking recipes with ids, five ingredients each.
+     */
+    public static List<Recipe> recipes(int size) {
+        List<Recipe> recipes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            recipes.add(Recipe.builder()
+                    .recipeId(UUID.randomUUID().toString())
+                    .recipeName("Recipe " + i)
+                    .category("Category " + i % 20)
+                    .instructions("Mix the ingredients, bake in the oven for " + (20 + i % 40) + " minutes and serve warm")
+                    .servings(1 + i % 6)
+                    .ingredients(ingredients(i, 5))
+                    .build());
+        }
+        return recipes;
+    }
+
+    public static Set<Ingredient> ingredients(int seed, int size) {
+        Set<Ingredient> ingredients = new LinkedHashSet<>(size);
+        for (int i = 0; i < size; i++) {
+            ingredients.add(new Ingredient(seed + i + 1, INGREDIENTS[(seed + i) % INGREDIENTS.length] + " " + (seed + i) / INGREDIENTS.length));
+        }
+        return ingredients;
+    }
+
+    /**
+     * A Hibernate session factory over an empty in memory database, with the same mappings as the api.
+     */
+    public static SessionFactory sessionFactory() {
+        return new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySettings(Map.of(
+                        AvailableSettings.URL, "jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        AvailableSettings.HBM2DDL_AUTO, "create-drop"))
+                .build())
+                .addAnnotatedClass(Recipe.class)
+                .addAnnotatedClass(Ingredient.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+}
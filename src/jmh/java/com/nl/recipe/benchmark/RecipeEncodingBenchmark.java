@@ -0,0 +1,59 @@
+package com.nl.recipe.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nl.recipe.model.Recipe;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Type RecipeEncodingBenchmark compares the encodings a list endpoint can answer with, json or cbor, sent as is
+ * or gzip compressed. Besides the time it prints the bytes on the wire of one response before each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeEncodingBenchmark {
+
+    @Param({"50", "200", "10000"})
+    private int catalogSize;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"identity", "gzip"})
+    private String contentEncoding;
+
+    private ObjectMapper objectMapper;
+    private List<Recipe> recipes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = "cbor".equals(format) ? Jackson2ObjectMapperBuilder.cbor().build() : Jackson2ObjectMapperBuilder.json().build();
+        recipes = BenchmarkData.recipes(catalogSize);
+        try {
+            System.out.printf("Response size of %d recipes as %s %s: %d bytes%n", catalogSize, format, contentEncoding, encode().length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (OutputStream outputStream = "gzip".equals(contentEncoding) ? new GZIPOutputStream(body) : body) {
+            objectMapper.writeValue(outputStream, recipes);
+        }
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.nl.recipe.repository;
+
+import com.nl.recipe.benchmark.BenchmarkData;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeIdFilter;
+import com.nl.recipe.model.RecipesFilterRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaQuery;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type RecipeFilterBenchmark measures building the search criteria query, restricted to the ids matched by the
+ * in memory indexes, for growing numbers of matched recipes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeFilterBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int catalogSize;
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private RecipeFilterRepository recipeFilterRepository;
+    private RecipesFilterRequest request;
+    private RecipeIdFilter recipeIds;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = BenchmarkData.sessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        recipeFilterRepository = new RecipeFilterRepository(entityManager);
+        request = new RecipesFilterRequest();
+        request.setCategory("Category 1");
+        request.setServings(2);
+        request.setInstructions("%oven%");
+        recipeIds = RecipeIdFilter.including(BenchmarkData.recipes(catalogSize).stream().map(Recipe::getRecipeId).toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Recipe> buildQuery() {
+        return recipeFilterRepository.buildQuery(request, null);
+    }
+
+    @Benchmark
+    public CriteriaQuery<Recipe> buildQueryWithMatchedIds() {
+        return recipeFilterRepository.buildQuery(request, recipeIds);
+    }
+}
@@ -0,0 +1,165 @@
+package com.nl.recipe.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nl.recipe.model.ErrorDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Type AdmissionControlFilter limits the concurrent requests of the endpoints that hold a database connection the
+ * longest: the searches, the recipe list and the export. Requests over the limit of their endpoint wait briefly and
+ * are then refused with 429, so a spike on these endpoints cannot take every pooled connection and cheap lookups keep
+ * their latency. Streamed responses keep their permit until the stream completes, conditional reads answered 304
+ * give it back as soon as that is decided.
+ */
+@Component
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private static final String RELEASE_ATTRIBUTE = AdmissionControlFilter.class.getName() + ".release";
+
+    private final ObjectMapper objectMapper;
+
+    private final EndpointLimit searchLimit;
+
+    private final EndpointLimit listLimit;
+
+    private final EndpointLimit exportLimit;
+
+    public AdmissionControlFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                  @Value("${recipe.admission.search.max-concurrent:8}") int searchMaxConcurrent,
+                                  @Value("${recipe.admission.list.max-concurrent:6}") int listMaxConcurrent,
+                                  @Value("${recipe.admission.export.max-concurrent:2}") int exportMaxConcurrent,
+                                  @Value("${recipe.admission.max-queue-time:100ms}") Duration maxQueueTime) {
+        this.objectMapper = objectMapper;
+        this.searchLimit = new EndpointLimit("search", searchMaxConcurrent, maxQueueTime, meterRegistry);
+        this.listLimit = new EndpointLimit("list", listMaxConcurrent, maxQueueTime, meterRegistry);
+        this.exportLimit = new EndpointLimit("export", exportMaxConcurrent, maxQueueTime, meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointLimit limit = limitFor(request);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!admit(limit)) {
+            reject(request, response, limit);
+            return;
+        }
+        Runnable release = releaseOnce(limit);
+        request.setAttribute(RELEASE_ATTRIBUTE, release);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private EndpointLimit limitFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.POST.matches(request.getMethod()) && path.startsWith("/search/recipes")) {
+            return searchLimit;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) && path.equals("/recipes")) {
+            return listLimit;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) && path.equals("/recipes/export")) {
+            return exportLimit;
+        }
+        return null;
+    }
+
+    /**
+     * Gives the permit of a request back before the request completes, once it is known not to read the database,
+     * like a conditional read answered 304. Does nothing for requests without a permit.
+     */
+    public static void releaseEarly(WebRequest webRequest) {
+        if (webRequest.getAttribute(RELEASE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Runnable release) {
+            release.run();
+        }
+    }
+
+    private static boolean admit(EndpointLimit limit) {
+        try {
+            return limit.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, EndpointLimit limit) throws IOException {
+        log.warn("Admission control, {} request refused, too many concurrent requests", limit.getEndpoint());
+        ErrorDetails errorDetails = new ErrorDetails(new Date(),
+                "Too many concurrent " + limit.getEndpoint() + " requests, retry later", "uri=" + request.getRequestURI());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+
+    /**
+     * The permit of an async request may be released by the listener of any of its completion events.
+     */
+    private static Runnable releaseOnce(EndpointLimit limit) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        };
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the listener is dropped on a new async cycle, register it again to keep the permit until it ends
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
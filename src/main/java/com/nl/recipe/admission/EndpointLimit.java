@@ -0,0 +1,68 @@
+package com.nl.recipe.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type EndpointLimit caps the concurrent requests of one expensive endpoint. A request waits, first come first
+ * served, up to the maximum queue time for a permit and is refused after that. Queue times are recorded as
+ * recipe.admission.queue tagged with the outcome, refusals are counted as recipe.admission.rejected.
+ */
+class EndpointLimit {
+
+    private final String endpoint;
+
+    private final Semaphore permits;
+
+    private final Duration maxQueueTime;
+
+    private final Timer admittedQueueTime;
+
+    private final Timer rejectedQueueTime;
+
+    private final Counter rejections;
+
+    EndpointLimit(String endpoint, int maxConcurrent, Duration maxQueueTime, MeterRegistry meterRegistry) {
+        this.endpoint = endpoint;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueueTime = maxQueueTime;
+        this.admittedQueueTime = queueTimer(meterRegistry, "admitted");
+        this.rejectedQueueTime = queueTimer(meterRegistry, "rejected");
+        this.rejections = Counter.builder("recipe.admission.rejected").tag("endpoint", endpoint).register(meterRegistry);
+        Gauge.builder("recipe.admission.in.flight", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    private Timer queueTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("recipe.admission.queue").tag("endpoint", endpoint).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * Waits up to the maximum queue time for a permit.
+     * @return whether the request is admitted, an admitted request must call {@link #release()} once done.
+     */
+    boolean tryAcquire() throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire(maxQueueTime.toNanos(), TimeUnit.NANOSECONDS);
+        (acquired ? admittedQueueTime : rejectedQueueTime).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejections.increment();
+        }
+        return acquired;
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,60 @@
+package com.nl.recipe.cache;
+
+import com.nl.recipe.event.RecipeChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Type CatalogVersion counts the changes made to the catalog, giving the read endpoints an ETag and a Last-Modified
+ * date without reading the recipes. The ETag carries the startup time so a restart never reuses an old tag.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String instance;
+
+    private final AtomicLong changes = new AtomicLong();
+
+    private volatile long lastModified;
+
+    public CatalogVersion() {
+        long startedAt = System.currentTimeMillis();
+        this.instance = Long.toString(startedAt, Character.MAX_RADIX);
+        this.lastModified = toWholeSecond(startedAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        lastModified = toWholeSecond(System.currentTimeMillis());
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Entity tag value of the current catalog, changes on every committed recipe change.
+     */
+    public String getETag() {
+        return instance + "-" + changes.get();
+    }
+
+    /**
+     * Number of committed recipe changes since startup, the generation of the search result cache.
+     */
+    public long getGeneration() {
+        return changes.get();
+    }
+
+    /**
+     * Time of the last committed recipe change in epoch milliseconds, the startup time before any change. It is
+     * rounded up to the whole second, the precision of the Last-Modified header, so the date a client sends back
+     * compares equal to it instead of looking older.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    private static long toWholeSecond(long epochMillis) {
+        return -Math.floorDiv(-epochMillis, 1000L) * 1000L;
+    }
+}
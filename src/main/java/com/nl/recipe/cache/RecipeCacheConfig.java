@@ -0,0 +1,21 @@
+package com.nl.recipe.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Type RecipeCacheConfig enables the read through recipe caches, sized and expired through spring.cache.caffeine.spec.
+ * The recipes and recipesByCategory caches are keyed by the {@link RecipeCacheVersions} version of the recipe or the
+ * category, so a committed change retires only the entries it makes stale. The searchResults cache is keyed by the
+ * {@link CatalogVersion} generation, as any change may alter a result. Retired entries age out.
+ */
+@Configuration
+@EnableCaching
+public class RecipeCacheConfig {
+
+    public static final String RECIPES = "recipes";
+
+    public static final String RECIPES_BY_CATEGORY = "recipesByCategory";
+
+    public static final String SEARCH_RESULTS = "searchResults";
+}
@@ -0,0 +1,92 @@
+package com.nl.recipe.cache;
+
+import com.nl.recipe.index.RecipeIndex;
+import com.nl.recipe.index.RecipeIndexer;
+import com.nl.recipe.model.Recipe;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Type RecipeCacheVersions versions the recipes and recipesByCategory cache keys per recipe id and per category.
+ * It is kept in sync by {@link RecipeIndexer} once a change commits, and remembers the category of every recipe so
+ * a recipe moved or deleted also retires the list of the category it left. A read takes the version before loading,
+ * so what it loaded while a change was committing is stored under a retired key and never served. The versions are
+ * striped by hash to stay bounded, a change only ever retires the few keys sharing its stripes.
+ */
+@Component
+public class RecipeCacheVersions implements RecipeIndex {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray recipeVersions = new AtomicLongArray(STRIPES);
+
+    private final AtomicLongArray categoryVersions = new AtomicLongArray(STRIPES);
+
+    private final Map<String, String> categories = new ConcurrentHashMap<>();
+
+    @Override
+    public void index(Recipe recipe) {
+        String category = normalize(recipe.getCategory());
+        String previous = category == null ? categories.remove(recipe.getRecipeId())
+                : categories.put(recipe.getRecipeId(), category);
+        retire(recipe.getRecipeId(), previous);
+        if (!Objects.equals(category, previous)) {
+            bump(categoryVersions, category);
+        }
+    }
+
+    @Override
+    public void remove(String recipeId) {
+        retire(recipeId, categories.remove(recipeId));
+    }
+
+    /**
+     * Forgets the categories before a rebuild and retires every key, the versions themselves never go back.
+     */
+    @Override
+    public void clear() {
+        categories.clear();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            recipeVersions.incrementAndGet(stripe);
+            categoryVersions.incrementAndGet(stripe);
+        }
+    }
+
+    /**
+     * Version of the cached recipe with the given id.
+     */
+    public long recipe(String recipeId) {
+        return recipeVersions.get(stripe(recipeId));
+    }
+
+    /**
+     * Version of the cached recipe list of the given category, whatever its case.
+     */
+    public long category(String category) {
+        return categoryVersions.get(stripe(normalize(category)));
+    }
+
+    private void retire(String recipeId, String category) {
+        bump(recipeVersions, recipeId);
+        bump(categoryVersions, category);
+    }
+
+    private static void bump(AtomicLongArray versions, String key) {
+        if (key != null) {
+            versions.incrementAndGet(stripe(key));
+        }
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(Objects.hashCode(key), STRIPES);
+    }
+
+    private static String normalize(String category) {
+        return category == null ? null : category.toLowerCase(Locale.ROOT);
+    }
+}
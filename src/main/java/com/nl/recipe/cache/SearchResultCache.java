@@ -0,0 +1,104 @@
+package com.nl.recipe.cache;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.RecipesFilterRequest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Type SearchResultCache keeps the ids matched by recent searches. Entries are keyed by the canonical form of the
+ * filter together with the catalog generation, so every committed recipe change retires all of them at once and the
+ * stale entries simply age out of the bounded cache.
+ */
+@Component
+public class SearchResultCache {
+
+    /**
+     * Larger results are not cached, their ids would cost more to hold and to load back than the search itself.
+     */
+    static final int MAX_CACHED_IDS = 1000;
+
+    private final CacheManager cacheManager;
+
+    private final CatalogVersion catalogVersion;
+
+    public SearchResultCache(CacheManager cacheManager, CatalogVersion catalogVersion) {
+        this.cacheManager = cacheManager;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Gets the ids matched by the filter, running the search on a miss.
+     * @param request the filter criteria.
+     * @param search runs the search, returns the matching ids in result order.
+     * @return the matching ids in result order.
+     */
+    public List<String> get(RecipesFilterRequest request, Supplier<List<String>> search) {
+        return get(request, null, () -> List.copyOf(search.get()), recipeIds -> recipeIds.size() <= MAX_CACHED_IDS);
+    }
+
+    /**
+     * Gets one page of the results of the filter, running the search on a miss.
+     * @param request the filter criteria.
+     * @param page what identifies the page within the results, compared by equals.
+     * @param search runs the search, returns the page.
+     * @return the page.
+     */
+    public <T> T get(RecipesFilterRequest request, Object page, Supplier<T> search) {
+        return get(request, page, search, result -> true);
+    }
+
+    /**
+     * The generation is read before searching, so a result racing with a change is stored under the old generation
+     * and never served.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(RecipesFilterRequest request, Object page, Supplier<T> search, Predicate<T> cacheable) {
+        Cache cache = cacheManager.getCache(RecipeCacheConfig.SEARCH_RESULTS);
+        if (Objects.isNull(cache)) {
+            return search.get();
+        }
+        Key key = canonicalKey(catalogVersion.getGeneration(), request, page);
+        Cache.ValueWrapper cached = cache.get(key);
+        if (Objects.nonNull(cached)) {
+            return (T) cached.get();
+        }
+        T result = search.get();
+        if (cacheable.test(result)) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Canonical form of the filter, so filters that only differ in casing or ingredient ordering share one entry.
+     * Category and instructions are compared lower cased by the database, so only their case is folded. The full
+     * text query is tokenized, so its spacing is folded as well.
+     */
+    static Key canonicalKey(long generation, RecipesFilterRequest request, Object page) {
+        List<String> ingredients = CollectionUtils.isEmpty(request.getIngredients()) ? List.of() : request.getIngredients().entrySet().stream()
+                .map(entry -> Ingredient.normalize(entry.getKey()) + "=" + Boolean.TRUE.equals(entry.getValue()))
+                .distinct()
+                .sorted()
+                .toList();
+        String query = Objects.isNull(request.getQuery()) ? null : lowerCase(request.getQuery().trim().replaceAll("\\s+", " "));
+        return new Key(generation, lowerCase(request.getCategory()), request.getServings(), lowerCase(request.getInstructions()),
+                ingredients, query, page);
+    }
+
+    private static String lowerCase(String value) {
+        return Objects.isNull(value) ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    record Key(long generation, String category, Integer servings, String instructions, List<String> ingredients,
+               String query, Object page) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.nl.recipe.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Type ReadWriteRoutingDataSource sends the connections of read only transactions to the replica pool and every
+ * other connection to the primary. The transaction is only known once it has begun, so this data source must sit
+ * behind a LazyConnectionDataSourceProxy that asks for the connection at the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+}
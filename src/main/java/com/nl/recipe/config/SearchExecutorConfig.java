@@ -0,0 +1,31 @@
+package com.nl.recipe.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Type SearchExecutorConfig defines the bounded pool running the searches of a multi search. Once the pool and its
+ * queue are full the request thread runs the search itself, so a burst slows down instead of failing.
+ */
+@Configuration
+public class SearchExecutorConfig {
+
+    public static final String SEARCH_EXECUTOR = "searchExecutor";
+
+    @Bean(name = SEARCH_EXECUTOR)
+    public ThreadPoolTaskExecutor searchExecutor(@Value("${recipe.search.executor.pool-size:8}") int poolSize,
+                                                 @Value("${recipe.search.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("recipe-search-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -1,7 +1,18 @@
 package com.nl.recipe.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nl.recipe.admission.AdmissionControlFilter;
+import com.nl.recipe.cache.CatalogVersion;
+import com.nl.recipe.model.BulkDeleteResult;
+import com.nl.recipe.model.BulkImportResult;
+import com.nl.recipe.model.FacetedSearchResult;
 import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipePage;
+import com.nl.recipe.model.RecipePatchRequest;
 import com.nl.recipe.model.RecipesFilterRequest;
+import com.nl.recipe.service.MultiSearchService;
+import com.nl.recipe.service.RecipeImportService;
 import com.nl.recipe.service.RecipeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,15 +20,29 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,11 +53,33 @@ import java.util.List;
 @RestController
 public class RecipeController{
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    /**
+     * Representations of the conditional reads, json first as the default.
+     */
+    private static final List<MediaType> CONDITIONAL_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
     private final RecipeService recipeService;
 
+    private final RecipeImportService recipeImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private final CatalogVersion catalogVersion;
+
+    private final MultiSearchService multiSearchService;
+
     @Autowired
-    public RecipeController(RecipeService recipeService){
+    public RecipeController(RecipeService recipeService, RecipeImportService recipeImportService, ObjectMapper objectMapper,
+                            CatalogVersion catalogVersion, MultiSearchService multiSearchService){
         this.recipeService = recipeService;
+        this.recipeImportService = recipeImportService;
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+        this.multiSearchService = multiSearchService;
     }
 
     /**
@@ -46,13 +93,130 @@ public class RecipeController{
     }
 
     /**
-     * Gets all the recipes from database.
-     * @return List of all available recipes.
+     * Creates many recipes in one request.
+     * @param recipes Recipes to be saved.
+     * @return The outcome of every recipe.
+     */
+    @Operation(summary = "Create many Recipes",
+     description = "Saves a json array of recipes, reporting success or failure per recipe")
+    @PostMapping(path = "/recipes/bulk", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<BulkImportResult> importRecipes(@RequestBody List<Recipe> recipes) {
+        return ResponseEntity.ok(recipeImportService.importRecipes(recipes));
+    }
+
+    /**
+     * Creates many recipes sent as newline delimited json, one recipe per line.
+     * @param body Request body.
+     * @return The outcome of every recipe.
+     */
+    @Operation(summary = "Create many Recipes from newline delimited json",
+     description = "Saves one recipe per line, reporting success or failure per recipe")
+    @PostMapping(path = "/recipes/bulk", consumes = "application/x-ndjson", produces = "application/json")
+    public ResponseEntity<BulkImportResult> importRecipesFromNdjson(InputStream body) throws IOException {
+        try (MappingIterator<Recipe> recipes = objectMapper.readerFor(Recipe.class).readValues(body)) {
+            return ResponseEntity.ok(recipeImportService.importRecipes(recipes.readAll()));
+        }
+    }
+
+    /**
+     * Gets a page of recipes from database, the cursor of the next page is returned in the X-Next-Cursor header.
+     * @param cursor Cursor of the page to fetch, omitted for the first page.
+     * @param size Page size.
+     * @param fields Comma separated fields to return, omitted for the whole recipes.
+     * @return List of recipes in the page.
+     */
+    @Operation(summary = "Retrieve all the Recipes",
+     description = "Returns the recipes ordered by name one page at a time, pass the X-Next-Cursor header value as cursor to get the next page. "
+             + "Pass fields, like recipeName,category, to only get those fields of each recipe. "
+             + "Answers 304 when the If-None-Match or If-Modified-Since header shows the catalog has not changed")
+    @ApiResponse(responseCode = "400", description = "Unknown field, or an invalid cursor")
+    @GetMapping(path = "/recipes", produces = {"application/json", "application/cbor"})
+    public ResponseEntity<List<?>> getAllRecipes(@RequestParam(name = "cursor", required = false) String cursor,
+                                                 @RequestParam(name = "size", defaultValue = "" + RecipeService.DEFAULT_PAGE_SIZE) int size,
+                                                 @RequestParam(name = "fields", required = false) String fields,
+                                                 WebRequest webRequest) {
+        MediaType mediaType = negotiatedMediaType(webRequest);
+        String eTag = eTag(mediaType);
+        long lastModified = catalogVersion.getLastModified();
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            AdmissionControlFilter.releaseEarly(webRequest);
+            return null;
+        }
+        RecipePage<?> recipePage = fields == null ? recipeService.getAllRecipes(cursor, size)
+                : recipeService.getRecipeSummaries(cursor, size, fields);
+        ResponseEntity.BodyBuilder response = conditionalOk(mediaType, eTag, lastModified);
+        if (recipePage.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, recipePage.getNextCursor());
+        }
+        return response.body(recipePage.getRecipes());
+    }
+
+    /**
+     * Streams the whole catalog as newline delimited json, one recipe per line.
+     * @return Response body written while the recipes are read from the database.
+     */
+    @Operation(summary = "Export all the Recipes",
+     description = "Streams every recipe as newline delimited json, meant for bulk synchronisation jobs")
+    @GetMapping(path = "/recipes/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportRecipes() {
+        StreamingResponseBody body = outputStream ->
+                recipeService.exportRecipes(recipe -> writeLine(outputStream, recipe));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Weak entity tag of the catalog for the representation sent. The tag is weak because the same representation may
+     * be sent gzip compressed or not.
+     */
+    private String eTag(MediaType mediaType) {
+        String variant = MediaType.APPLICATION_CBOR.equals(mediaType) ? "-cbor" : "";
+        return "W/\"" + catalogVersion.getETag() + variant + "\"";
+    }
+
+    /**
+     * Negotiates the representation of a conditional read the way the message converters would: each accepted type
+     * proposes the json and cbor representations it is compatible with, at its quality, and the most specific proposal
+     * of the highest quality wins. Json when the Accept header is missing or invalid.
+     * @return json or cbor, null when neither is accepted.
      */
-    @Operation(summary = "Retrieve all the Recipes")
-    @GetMapping(path = "/recipes", produces = "application/json")
-    public ResponseEntity<List<Recipe>> getAllRecipes() {
-        return ResponseEntity.ok(recipeService.getAllRecipes());
+    private static MediaType negotiatedMediaType(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> proposals = new ArrayList<>();
+        try {
+            for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+                for (MediaType produced : CONDITIONAL_MEDIA_TYPES) {
+                    if (accepted.isCompatibleWith(produced)) {
+                        proposals.add(produced.copyQualityValue(accepted));
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(proposals);
+        return proposals.stream().findFirst()
+                .map(proposal -> MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(proposal) ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .orElse(null);
+    }
+
+    /**
+     * The response of a conditional read, pinned to the negotiated representation so its body always matches its tag.
+     */
+    private static ResponseEntity.BodyBuilder conditionalOk(MediaType mediaType, String eTag, long lastModified) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).lastModified(lastModified).varyBy(HttpHeaders.ACCEPT);
+        return mediaType == null ? response : response.contentType(mediaType);
+    }
+
+    private void writeLine(OutputStream outputStream, Recipe recipe) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(recipe));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -62,10 +226,18 @@ public class RecipeController{
      *
      */
     @Operation(summary = "Search for recipes by a category",
-     description = "Searches the recipes under the category")
-    @GetMapping(path = "/recipes/category/{category}", produces = "application/json")
-    public ResponseEntity<List<Recipe>> getRecipesByCategory(@PathVariable("category") String categoryType) {
-        return ResponseEntity.ok(recipeService.getRecipesByCategory(categoryType));
+     description = "Searches the recipes under the category. "
+             + "Answers 304 when the If-None-Match or If-Modified-Since header shows the catalog has not changed")
+    @GetMapping(path = "/recipes/category/{category}", produces = {"application/json", "application/cbor"})
+    public ResponseEntity<List<Recipe>> getRecipesByCategory(@PathVariable("category") String categoryType,
+                                                             WebRequest webRequest) {
+        MediaType mediaType = negotiatedMediaType(webRequest);
+        String eTag = eTag(mediaType);
+        long lastModified = catalogVersion.getLastModified();
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+        return conditionalOk(mediaType, eTag, lastModified).body(recipeService.getRecipesByCategory(categoryType));
     }
 
     /**
@@ -74,14 +246,32 @@ public class RecipeController{
      * @return The updated recipe.
      */
     @Operation(summary = "Update a recipe",
-     description = "Finds a recipe by receipeId and updates it.")
+     description = "Finds a recipe by receipeId and updates it, a recipe sent with a version is only updated if that version is still the current one.")
     @ApiResponse(responseCode = "200", description = "Recipe updated successfully")
+    @ApiResponse(responseCode = "409", description = "Recipe changed since the version sent")
     @PutMapping(path = "/recipe", consumes = "application/json", produces = "application/json")
     public ResponseEntity<String> updateRecipeById(@RequestBody Recipe recipeTobeUpdated) {
         recipeService.updateRecipeById(recipeTobeUpdated);
         return ResponseEntity.ok("Recipe updated successfully.");
     }
 
+    /**
+     * Updates the supplied fields of a recipe.
+     * @param recipeId RecipeId
+     * @param recipePatchRequest Fields to be changed.
+     * @return The patched recipe.
+     */
+    @Operation(summary = "Partially update a recipe",
+     description = "Changes only the fields present in the request, the ingredients sent replace the current ones. A patch sent with a version is only applied if that version is still the current one.")
+    @ApiResponse(responseCode = "200", description = "Recipe patched successfully")
+    @ApiResponse(responseCode = "404", description = "Recipe not found")
+    @ApiResponse(responseCode = "409", description = "Recipe changed since the version sent")
+    @PatchMapping(path = "/recipe/{recipeId}", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<Recipe> patchRecipeById(@PathVariable("recipeId") @Pattern(regexp = "^[a-zA-Z0-9-]+$") String recipeId,
+                                                  @RequestBody @Valid RecipePatchRequest recipePatchRequest) {
+        return ResponseEntity.ok(recipeService.patchRecipeById(recipeId, recipePatchRequest));
+    }
+
     /**
      * Deletes a recipe with given Id.
      * @param recipeId RecipeId
@@ -101,14 +291,92 @@ public class RecipeController{
     }
 
     /**
-     * Gets all the recipes that satisfy the search criteria.
+     * Deletes all the recipes that satisfy the filter criteria.
+     * @param recipesFilterRequest Filter criteria of the recipes to delete.
+     * @return Number of deleted recipes.
+     */
+    @Operation(summary = "Deletes the Recipes matching filter criteria",
+        description="Takes the same filter criteria as the recipe search and deletes every matching recipe, a filter without criteria is refused")
+    @ApiResponse(responseCode = "200", description = "Number of recipes deleted")
+    @ApiResponse(responseCode = "400", description = "The filter has no criteria")
+    @DeleteMapping(path = "/recipes", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<BulkDeleteResult> removeRecipesByCriteria(@RequestBody RecipesFilterRequest recipesFilterRequest) {
+        return ResponseEntity.ok(new BulkDeleteResult(recipeService.deleteRecipesByCriteria(recipesFilterRequest)));
+    }
+
+    /**
+     * Gets one page of the recipes that satisfy the search criteria, the cursor of the next page is returned in the
+     * X-Next-Cursor header and the number of matching recipes in the X-Total-Count header.
      * @param recipesSearchRequest Filter criteria to search for recipe.
+     * @param sort name, servings or relevance.
+     * @param cursor Cursor of the page, omitted for the first page.
+     * @param size Number of recipes per page.
+     * @param total Whether to count the matching recipes.
+     * @param fields Comma separated fields to return, omitted for the whole recipes.
      * @return List of recipes.
      */
     @Operation(summary = "Search for Recipes with filter criteria",
-        description="Given some filter criteria like ingredients, instructions, servings, returns all the recipes matching the filter criteria")
-    @PostMapping(path ="/search/recipes",consumes = "application/json", produces = "application/json")
-    public ResponseEntity<List<Recipe>> searchRecipesByCriteria(@RequestBody RecipesFilterRequest recipesSearchRequest) {
-        return ResponseEntity.ok(recipeService.searchRecipesByCriteria(recipesSearchRequest));
+        description="Given some filter criteria like ingredients, instructions, servings, returns one page of the recipes matching the filter criteria, sorted by name, servings or relevance to the full text query. Pass the X-Next-Cursor header of a response as cursor to get the next page, set total to false to skip counting the matching recipes, pass fields, like recipeName,category, to only get those fields of each recipe")
+    @ApiResponse(responseCode = "400", description = "Unknown sort or field, or a cursor not issued for this sort")
+    @PostMapping(path ="/search/recipes",consumes = "application/json", produces = {"application/json", "application/cbor"})
+    public ResponseEntity<List<?>> searchRecipesByCriteria(@RequestBody RecipesFilterRequest recipesSearchRequest,
+                                                           @RequestParam(name = "sort", required = false) String sort,
+                                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                                           @RequestParam(name = "size", defaultValue = "" + RecipeService.DEFAULT_PAGE_SIZE) int size,
+                                                           @RequestParam(name = "total", defaultValue = "true") boolean total,
+                                                           @RequestParam(name = "fields", required = false) String fields) {
+        RecipePage<?> recipePage = fields == null ? recipeService.searchRecipes(recipesSearchRequest, sort, cursor, size, total)
+                : recipeService.searchRecipeSummaries(recipesSearchRequest, sort, cursor, size, total, fields);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (recipePage.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, recipePage.getNextCursor());
+        }
+        if (recipePage.getTotalCount() != null) {
+            response.header(TOTAL_COUNT_HEADER, Long.toString(recipePage.getTotalCount()));
+        }
+        return response.body(recipePage.getRecipes());
+    }
+
+    /**
+     * Gets one page of the recipes that satisfy the search criteria with the number of recipes per category, per
+     * servings and for the most used ingredients among all the matching recipes. The cursor of the next page is
+     * returned in the X-Next-Cursor header.
+     * @param recipesSearchRequest Filter criteria to search for recipe.
+     * @param sort name, servings or relevance.
+     * @param cursor Cursor of the page, omitted for the first page.
+     * @param size Number of recipes per page.
+     * @param topIngredients Number of ingredients in the ingredient facet.
+     * @return One page of recipes and the facets of the whole result.
+     */
+    @Operation(summary = "Search for Recipes with facet counts",
+        description="Same filter criteria and paging as the recipe search, also returns the recipe counts per category, per servings and for the most used ingredients of the whole result")
+    @ApiResponse(responseCode = "400", description = "Unknown sort, or a cursor not issued for this sort")
+    @PostMapping(path ="/search/recipes/faceted",consumes = "application/json", produces = {"application/json", "application/cbor"})
+    public ResponseEntity<FacetedSearchResult> searchRecipesWithFacets(@RequestBody RecipesFilterRequest recipesSearchRequest,
+                                                                       @RequestParam(name = "sort", required = false) String sort,
+                                                                       @RequestParam(name = "cursor", required = false) String cursor,
+                                                                       @RequestParam(name = "size", defaultValue = "" + RecipeService.DEFAULT_PAGE_SIZE) int size,
+                                                                       @RequestParam(name = "topIngredients", defaultValue = "" + RecipeService.DEFAULT_TOP_INGREDIENTS) int topIngredients) {
+        FacetedSearchResult result = recipeService.searchRecipesWithFacets(recipesSearchRequest, sort, cursor, size, topIngredients);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, result.getNextCursor());
+        }
+        return response.body(result);
+    }
+
+    /**
+     * Runs several searches in one request.
+     * @param recipesSearchRequests Filter criteria of each search.
+     * @param size Number of recipes per search.
+     * @return First page of recipes of each search, in the order of the searches.
+     */
+    @Operation(summary = "Run several Recipe searches at once",
+        description="Runs each filter criteria like the recipe search, concurrently, and returns the first page of the recipes of each search in the order of the searches")
+    @ApiResponse(responseCode = "400", description = "Too many searches in the request")
+    @PostMapping(path ="/search/recipes/multi",consumes = "application/json", produces = {"application/json", "application/cbor"})
+    public ResponseEntity<List<List<Recipe>>> multiSearchRecipes(@RequestBody List<RecipesFilterRequest> recipesSearchRequests,
+                                                                 @RequestParam(name = "size", defaultValue = "" + RecipeService.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(multiSearchService.searchRecipes(recipesSearchRequests, size));
     }
 }
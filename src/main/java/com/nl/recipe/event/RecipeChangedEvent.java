@@ -0,0 +1,37 @@
+package com.nl.recipe.event;
+
+import com.nl.recipe.model.Recipe;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Type RecipeChangedEvent is published by the service after every write, so in memory structures derived from the
+ * catalog can follow the database.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RecipeChangedEvent {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    private final ChangeType changeType;
+    private final String recipeId;
+    /**
+     * The recipe as saved, null when it was deleted.
+     */
+    private final Recipe recipe;
+
+    public static RecipeChangedEvent created(Recipe recipe) {
+        return new RecipeChangedEvent(ChangeType.CREATED, recipe.getRecipeId(), recipe);
+    }
+
+    public static RecipeChangedEvent updated(Recipe recipe) {
+        return new RecipeChangedEvent(ChangeType.UPDATED, recipe.getRecipeId(), recipe);
+    }
+
+    public static RecipeChangedEvent deleted(String recipeId) {
+        return new RecipeChangedEvent(ChangeType.DELETED, recipeId, null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.nl.recipe.exception;
+
+/**
+ * Type InvalidCursorException thrown when a client sends a pagination cursor that was not issued by the api.
+ */
+public class InvalidCursorException extends RuntimeException{
+    public InvalidCursorException(String cursor){
+        super("Invalid cursor " + cursor);
+    }
+}
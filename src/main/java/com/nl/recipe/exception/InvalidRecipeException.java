@@ -0,0 +1,10 @@
+package com.nl.recipe.exception;
+
+/**
+ * Type InvalidRecipeException thrown when a client sends a recipe the api cannot store as it is.
+ */
+public class InvalidRecipeException extends RuntimeException{
+    public InvalidRecipeException(String message){
+        super(message);
+    }
+}
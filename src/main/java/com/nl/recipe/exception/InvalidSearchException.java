@@ -0,0 +1,10 @@
+package com.nl.recipe.exception;
+
+/**
+ * Type InvalidSearchException thrown when a client sends a search the api refuses to run.
+ */
+public class InvalidSearchException extends RuntimeException{
+    public InvalidSearchException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,142 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeFacets;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Type FacetCounter keeps the catalog wide facet counts up to date as recipes change, so the facets of the whole
+ * catalog are read from the counters and those of a search result are summed from the per recipe values, neither
+ * going to the database.
+ */
+@Component
+public class FacetCounter implements RecipeIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, FacetValues> recipes = new HashMap<>();
+    private final Map<String, Long> categories = new HashMap<>();
+    private final Map<Integer, Long> servings = new HashMap<>();
+    private final Map<String, Long> ingredients = new HashMap<>();
+
+    @Override
+    public void index(Recipe recipe) {
+        FacetValues values = FacetValues.of(recipe);
+        lock.writeLock().lock();
+        try {
+            FacetValues previous = recipes.put(recipe.getRecipeId(), values);
+            if (previous != null) {
+                count(previous, -1);
+            }
+            count(values, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String recipeId) {
+        lock.writeLock().lock();
+        try {
+            FacetValues previous = recipes.remove(recipeId);
+            if (previous != null) {
+                count(previous, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            recipes.clear();
+            categories.clear();
+            servings.clear();
+            ingredients.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the facets of the whole catalog.
+     * @param topIngredients number of ingredients to return, the most used first.
+     */
+    public RecipeFacets facets(int topIngredients) {
+        lock.readLock().lock();
+        try {
+            return new RecipeFacets(sorted(categories, Integer.MAX_VALUE), sorted(servings, Integer.MAX_VALUE),
+                    sorted(ingredients, topIngredients));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the facets of the given recipes, ids unknown to the counter are ignored.
+     * @param recipeIds ids of the recipes to count.
+     * @param topIngredients number of ingredients to return, the most used first.
+     */
+    public RecipeFacets facets(Collection<String> recipeIds, int topIngredients) {
+        Map<String, Long> resultCategories = new HashMap<>();
+        Map<Integer, Long> resultServings = new HashMap<>();
+        Map<String, Long> resultIngredients = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String recipeId : recipeIds) {
+                FacetValues values = recipes.get(recipeId);
+                if (values != null) {
+                    resultCategories.merge(values.category(), 1L, Long::sum);
+                    resultServings.merge(values.servings(), 1L, Long::sum);
+                    values.ingredients().forEach(ingredient -> resultIngredients.merge(ingredient, 1L, Long::sum));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new RecipeFacets(sorted(resultCategories, Integer.MAX_VALUE), sorted(resultServings, Integer.MAX_VALUE),
+                sorted(resultIngredients, topIngredients));
+    }
+
+    private void count(FacetValues values, long delta) {
+        adjust(categories, values.category(), delta);
+        adjust(servings, values.servings(), delta);
+        values.ingredients().forEach(ingredient -> adjust(ingredients, ingredient, delta));
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+        counts.compute(key, (k, count) -> {
+            long updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> sorted(Map<K, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (first, second) -> first, LinkedHashMap::new));
+    }
+
+    private record FacetValues(String category, int servings, Set<String> ingredients) {
+
+        static FacetValues of(Recipe recipe) {
+            String category = recipe.getCategory() == null ? "" : recipe.getCategory().toLowerCase(Locale.ROOT);
+            Set<String> ingredients = CollectionUtils.isEmpty(recipe.getIngredients()) ? Set.of() :
+                    recipe.getIngredients().stream()
+                            .map(Ingredient::getName)
+                            .filter(Objects::nonNull)
+                            .map(Ingredient::normalize)
+                            .collect(Collectors.toSet());
+            return new FacetValues(category, recipe.getServings(), ingredients);
+        }
+    }
+}
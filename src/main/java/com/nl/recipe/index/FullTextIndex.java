@@ -0,0 +1,132 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.model.Recipe;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type FullTextIndex is an in memory inverted index over the recipe name and instructions. Queries return the
+ * recipes containing every query term, ranked with BM25; terms of the recipe name count double.
+ */
+@Component
+public class FullTextIndex implements RecipeIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_BOOST = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+    private final Map<String, Integer> documentLengths = new HashMap<>();
+    private final Map<String, Set<String>> documentTerms = new HashMap<>();
+    private long totalLength;
+
+    @Override
+    public void index(Recipe recipe) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        TextAnalyzer.analyze(recipe.getRecipeName()).forEach(term -> termFrequencies.merge(term, NAME_BOOST, Integer::sum));
+        TextAnalyzer.analyze(recipe.getInstructions()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        lock.writeLock().lock();
+        try {
+            unlink(recipe.getRecipeId());
+            termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(recipe.getRecipeId(), frequency));
+            documentTerms.put(recipe.getRecipeId(), termFrequencies.keySet());
+            documentLengths.put(recipe.getRecipeId(), length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String recipeId) {
+        lock.writeLock().lock();
+        try {
+            unlink(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentLengths.clear();
+            documentTerms.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the recipes containing all the terms of the query.
+     * @param query free text, analyzed like the indexed text.
+     * @return ids of the matching recipes, most relevant first.
+     */
+    public List<String> search(String query) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<String, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<String, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                termPostings.add(posting);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            int documents = documentLengths.size();
+            double averageLength = (double) totalLength / documents;
+            Map<String, Double> scores = new HashMap<>();
+            for (String recipeId : termPostings.get(0).keySet()) {
+                double score = 0;
+                for (Map<String, Integer> posting : termPostings) {
+                    Integer frequency = posting.get(recipeId);
+                    if (frequency == null) {
+                        score = -1;
+                        break;
+                    }
+                    double idf = Math.log(1 + (documents - posting.size() + 0.5) / (posting.size() + 0.5));
+                    double norm = K1 * (1 - B + B * documentLengths.get(recipeId) / averageLength);
+                    score += idf * frequency * (K1 + 1) / (frequency + norm);
+                }
+                if (score >= 0) {
+                    scores.put(recipeId, score);
+                }
+            }
+            List<String> ranked = new ArrayList<>(scores.keySet());
+            ranked.sort(Comparator.comparing((String recipeId) -> scores.get(recipeId)).reversed()
+                    .thenComparing(Comparator.naturalOrder()));
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(String recipeId) {
+        Set<String> terms = documentTerms.remove(recipeId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Integer> posting = postings.get(term);
+            posting.remove(recipeId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths.remove(recipeId);
+    }
+}
@@ -0,0 +1,147 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeIdFilter;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Type IngredientIndex is an in memory inverted index from normalized ingredient name to the recipes using it.
+ * Every recipe gets a compact int document id and each ingredient a compressed bitmap of document ids, so
+ * ingredient include/exclude filters are evaluated as bitmap AND/ANDNOT without touching the database.
+ */
+@Component
+public class IngredientIndex implements RecipeIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    private final Map<String, Integer> documentIds = new HashMap<>();
+    private final Map<Integer, String> recipeIds = new HashMap<>();
+    private final Map<Integer, Set<String>> documentIngredients = new HashMap<>();
+    private final Deque<Integer> freeDocumentIds = new ArrayDeque<>();
+    private final RoaringBitmap documents = new RoaringBitmap();
+    private int nextDocumentId;
+
+    @Override
+    public void index(Recipe recipe) {
+        Set<String> ingredients = CollectionUtils.isEmpty(recipe.getIngredients()) ? Set.of() :
+                recipe.getIngredients().stream()
+                        .map(Ingredient::getName)
+                        .filter(Objects::nonNull)
+                        .map(Ingredient::normalize)
+                        .collect(Collectors.toSet());
+        lock.writeLock().lock();
+        try {
+            Integer documentId = documentIds.get(recipe.getRecipeId());
+            if (documentId == null) {
+                documentId = freeDocumentIds.isEmpty() ? nextDocumentId++ : freeDocumentIds.poll();
+                documentIds.put(recipe.getRecipeId(), documentId);
+                recipeIds.put(documentId, recipe.getRecipeId());
+                documents.add(documentId);
+            } else {
+                unlink(documentId);
+            }
+            for (String ingredient : ingredients) {
+                postings.computeIfAbsent(ingredient, name -> new RoaringBitmap()).add(documentId);
+            }
+            documentIngredients.put(documentId, ingredients);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer documentId = documentIds.remove(recipeId);
+            if (documentId != null) {
+                unlink(documentId);
+                documentIngredients.remove(documentId);
+                recipeIds.remove(documentId);
+                documents.remove(documentId);
+                freeDocumentIds.add(documentId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the recipes containing all the ingredients mapped to true and none of those mapped to false. Returns the
+     * indexed recipes that do not match instead when they are fewer, which is the case of most exclude only filters.
+     * @param ingredients ingredient names to include or exclude, compared case insensitively.
+     * @return the shorter of the matching and the not matching ids.
+     */
+    public RecipeIdFilter resolve(Map<String, Boolean> ingredients) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matching = matchingDocuments(ingredients);
+            if (matching.getCardinality() > documents.getCardinality() / 2) {
+                return RecipeIdFilter.excluding(recipeIdsOf(RoaringBitmap.andNot(documents, matching)));
+            }
+            return RecipeIdFilter.including(recipeIdsOf(matching));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap matchingDocuments(Map<String, Boolean> ingredients) {
+        RoaringBitmap result = null;
+        for (Map.Entry<String, Boolean> entry : ingredients.entrySet()) {
+            if (Boolean.TRUE.equals(entry.getValue())) {
+                RoaringBitmap posting = postings.getOrDefault(Ingredient.normalize(entry.getKey()), new RoaringBitmap());
+                result = result == null ? posting.clone() : RoaringBitmap.and(result, posting);
+            }
+        }
+        if (result == null) {
+            result = documents.clone();
+        }
+        for (Map.Entry<String, Boolean> entry : ingredients.entrySet()) {
+            RoaringBitmap posting = postings.get(Ingredient.normalize(entry.getKey()));
+            if (!Boolean.TRUE.equals(entry.getValue()) && posting != null) {
+                result.andNot(posting);
+            }
+        }
+        return result;
+    }
+
+    private Set<String> recipeIdsOf(RoaringBitmap documentIds) {
+        Set<String> matches = new HashSet<>(documentIds.getCardinality());
+        documentIds.forEach((int documentId) -> matches.add(recipeIds.get(documentId)));
+        return matches;
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentIds.clear();
+            recipeIds.clear();
+            documentIngredients.clear();
+            freeDocumentIds.clear();
+            documents.clear();
+            nextDocumentId = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(int documentId) {
+        for (String ingredient : documentIngredients.getOrDefault(documentId, Set.of())) {
+            RoaringBitmap posting = postings.get(ingredient);
+            posting.remove(documentId);
+            if (posting.isEmpty()) {
+                postings.remove(ingredient);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.model.Recipe;
+
+/**
+ * Type RecipeIndex is an in memory index over the catalog, kept in sync by {@link RecipeIndexer}.
+ */
+public interface RecipeIndex {
+
+    /**
+     * Adds a recipe to the index, replacing what was indexed for it before.
+     */
+    void index(Recipe recipe);
+
+    void remove(String recipeId);
+
+    void clear();
+}
@@ -0,0 +1,81 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.event.RecipeChangedEvent;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeCursor;
+import com.nl.recipe.repository.RecipeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Type RecipeIndexer loads the catalog into every {@link RecipeIndex} at startup and applies each recipe change
+ * to them afterwards.
+ */
+@Component
+@Slf4j
+public class RecipeIndexer {
+
+    private static final int REBUILD_PAGE_SIZE = 200;
+
+    private final List<RecipeIndex> recipeIndexes;
+
+    private final RecipeRepository recipeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public RecipeIndexer(List<RecipeIndex> recipeIndexes, RecipeRepository recipeRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.recipeIndexes = recipeIndexes;
+        this.recipeRepository = recipeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Loads every recipe into the indexes once the application has started, one page per transaction so the
+     * persistence context never holds more than a page.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        recipeIndexes.forEach(RecipeIndex::clear);
+        long indexed = 0;
+        List<Recipe> page = transactionTemplate.execute(status -> indexPage(recipeRepository.findFirstPage(Limit.of(REBUILD_PAGE_SIZE))));
+        while (page.size() == REBUILD_PAGE_SIZE) {
+            indexed += page.size();
+            RecipeCursor cursor = RecipeCursor.of(page.get(page.size() - 1));
+            page = transactionTemplate.execute(status -> indexPage(recipeRepository.findPageAfter(
+                    cursor.getRecipeName(), cursor.getRecipeId(), Limit.of(REBUILD_PAGE_SIZE))));
+        }
+        indexed += page.size();
+        log.info("Recipe indexes rebuilt, Total recipes indexed {}", indexed);
+    }
+
+    /**
+     * Runs before the other change listeners, so once the catalog generation moves on the indexes already hold the
+     * change and a search cached under the new generation sees it.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.getChangeType() == RecipeChangedEvent.ChangeType.DELETED) {
+            recipeIndexes.forEach(recipeIndex -> recipeIndex.remove(event.getRecipeId()));
+        } else {
+            recipeIndexes.forEach(recipeIndex -> recipeIndex.index(event.getRecipe()));
+        }
+    }
+
+    private List<Recipe> indexPage(List<Recipe> page) {
+        page.forEach(recipe -> recipeIndexes.forEach(recipeIndex -> recipeIndex.index(recipe)));
+        return page;
+    }
+}
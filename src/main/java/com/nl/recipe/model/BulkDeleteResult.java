@@ -0,0 +1,15 @@
+package com.nl.recipe.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Type BulkDeleteResult reports how many recipes a delete by filter criteria removed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeleteResult {
+    private int deleted;
+}
@@ -0,0 +1,40 @@
+package com.nl.recipe.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Type BulkImportResult reports the outcome of a bulk import, one item per submitted recipe in submission order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResult {
+    private int imported;
+    private int failed;
+    private List<Item> items;
+
+    public enum Status { CREATED, FAILED }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private int index;
+        private String recipeName;
+        private Status status;
+        private String recipeId;
+        private String message;
+
+        public static Item created(int index, Recipe recipe) {
+            return new Item(index, recipe.getRecipeName(), Status.CREATED, recipe.getRecipeId(), null);
+        }
+
+        public static Item failed(int index, Recipe recipe, String message) {
+            return new Item(index, recipe.getRecipeName(), Status.FAILED, null, message);
+        }
+    }
+}
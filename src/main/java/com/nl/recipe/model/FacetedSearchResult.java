@@ -0,0 +1,22 @@
+package com.nl.recipe.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Type FacetedSearchResult holds one page of the recipes matching a search and the facet counts over all the matching
+ * recipes. The cursor of the next page is sent in the X-Next-Cursor header, not in the body.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetedSearchResult {
+    private List<Recipe> recipes;
+    private RecipeFacets facets;
+    @JsonIgnore
+    private String nextCursor;
+}
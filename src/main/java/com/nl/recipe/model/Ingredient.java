@@ -1,13 +1,18 @@
 package com.nl.recipe.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.UUID;
+import java.util.Locale;
 
+/**
+ * Type Ingredient is an entry of the ingredient dictionary, shared by every recipe using it. Names are unique once
+ * normalized, so "Salt" and " salt" are the same ingredient.
+ */
 @Data
 @Table(name = "ingredient")
 @Entity
@@ -15,14 +20,38 @@ import java.util.UUID;
 @NoArgsConstructor
 public class Ingredient {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private UUID ingredientId;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredient_seq")
+    @SequenceGenerator(name = "ingredient_seq", sequenceName = "ingredient_seq", allocationSize = 50)
+    private Integer ingredientId;
 
-    @Column
-    @NotEmpty(message = "Please specify the name of the ingredient")
+    @Column(nullable = false)
+    @NotBlank(message = "Please specify the name of the ingredient")
     private String name;
 
+    @JsonIgnore
+    @Column(nullable = false, unique = true)
+    private String normalizedName;
+
     public Ingredient(String name){
         this.name = name;
     }
-}
\ No newline at end of file
+
+    public Ingredient(Integer ingredientId, String name){
+        this.ingredientId = ingredientId;
+        this.name = name;
+        this.normalizedName = normalize(name);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        this.normalizedName = normalize(name);
+    }
+
+    /**
+     * Normalized form used to compare ingredient names, trimmed and lower cased.
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
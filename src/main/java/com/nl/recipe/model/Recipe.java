@@ -1,22 +1,36 @@
 package com.nl.recipe.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
-import java.util.List;
+import java.util.Set;
 
 @Entity
+@DynamicUpdate
 @Data
 @Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "recipes")
+@NamedEntityGraph(name = Recipe.WITH_INGREDIENTS, attributeNodes = @NamedAttributeNode("ingredients"))
 public class Recipe {
 
+    /**
+     * Fetch plan loading the ingredients in the same query as the recipe.
+     */
+    public static final String WITH_INGREDIENTS = "Recipe.ingredients";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String recipeId;
@@ -28,14 +42,30 @@ public class Recipe {
     @NotEmpty(message = "Please choose a category of the Recipe")
     private String category;
 
+    /**
+     * Lower cased category, computed and indexed by the database for case insensitive category lookups.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Column(insertable = false, updatable = false)
+    private String categoryKey;
+
     @Column
     private String instructions;
 
     @Column
     private int servings;
 
-    @OneToMany(targetEntity = Ingredient.class, cascade = { CascadeType.ALL })
-    @PrimaryKeyJoinColumn(name = "recipeName", referencedColumnName = "recipeId")
+    @ManyToMany
+    @JoinTable(name = "recipe_ingredient",
+            joinColumns = @JoinColumn(name = "recipe_id"),
+            inverseJoinColumns = @JoinColumn(name = "ingredient_id"))
+    @BatchSize(size = 100)
+    @OrderBy("name")
     @NotEmpty(message = "Please specify the ingredients of recipe")
-    private List<Ingredient> ingredients;
+    private Set<@NotNull(message = "Please specify the name of the ingredient") @Valid Ingredient> ingredients;
+
+    @Version
+    private Long version;
 }
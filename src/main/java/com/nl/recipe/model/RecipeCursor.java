@@ -0,0 +1,48 @@
+package com.nl.recipe.model;
+
+import com.nl.recipe.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Type RecipeCursor is the keyset position of a page of recipes, ordered by recipeName and then recipeId.
+ * Clients only ever see it as an opaque url safe token.
+ */
+@Data
+@AllArgsConstructor
+public class RecipeCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private String recipeId;
+    private String recipeName;
+
+    public static RecipeCursor of(Recipe recipe) {
+        return new RecipeCursor(recipe.getRecipeId(), recipe.getRecipeName());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((recipeId + SEPARATOR + recipeName).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token the opaque cursor sent by the client.
+     * @return the keyset position.
+     */
+    public static RecipeCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+            if (parts.length != 2 || parts[0].isEmpty()) {
+                throw new InvalidCursorException(token);
+            }
+            return new RecipeCursor(parts[0], parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
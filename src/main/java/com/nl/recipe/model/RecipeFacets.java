@@ -0,0 +1,20 @@
+package com.nl.recipe.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Type RecipeFacets holds the number of recipes per lower cased category, per servings value and for the most used
+ * ingredients, each ordered by descending count.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeFacets {
+    private Map<String, Long> categories;
+    private Map<Integer, Long> servings;
+    private Map<String, Long> ingredients;
+}
@@ -0,0 +1,60 @@
+package com.nl.recipe.model;
+
+import com.nl.recipe.exception.InvalidSearchException;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Type RecipeField is a field of a recipe a client can ask for in a sparse response. Every field but the ingredients
+ * is a column of the recipes table.
+ */
+public enum RecipeField {
+    RECIPE_ID("recipeId"),
+    RECIPE_NAME("recipeName"),
+    CATEGORY("category"),
+    INSTRUCTIONS("instructions"),
+    SERVINGS("servings"),
+    INGREDIENTS("ingredients"),
+    VERSION("version");
+
+    private final String attribute;
+
+    RecipeField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * Recipe attribute of the field, also its name in the response.
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isColumn() {
+        return this != INGREDIENTS;
+    }
+
+    /**
+     * Parses the fields requested by the client. The recipe id is always part of the response.
+     * @param fields comma separated field names in any case, like recipeName,category.
+     * @return the requested fields and the recipe id.
+     */
+    public static Set<RecipeField> parse(String fields) {
+        Set<RecipeField> recipeFields = EnumSet.of(RECIPE_ID);
+        for (String field : fields.split(",")) {
+            recipeFields.add(of(field.trim()));
+        }
+        return recipeFields;
+    }
+
+    private static RecipeField of(String field) {
+        for (RecipeField recipeField : values()) {
+            if (recipeField.attribute.toLowerCase(Locale.ROOT).equals(field.toLowerCase(Locale.ROOT))) {
+                return recipeField;
+            }
+        }
+        throw new InvalidSearchException("Unknown field " + field + ", use recipeId, recipeName, category, instructions, servings, ingredients or version");
+    }
+}
@@ -0,0 +1,43 @@
+package com.nl.recipe.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Type RecipeIdFilter restricts a search to the recipes resolved from the in memory indexes. It holds either the ids
+ * of the matching recipes or, when those are most of the catalog, the ids of the other recipes, so the query binds
+ * whichever list is shorter as IN or NOT IN.
+ */
+@Data
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RecipeIdFilter {
+
+    private Set<String> recipeIds;
+    private boolean excluded;
+
+    /**
+     * Filter matching only the given recipes.
+     */
+    public static RecipeIdFilter including(Collection<String> recipeIds) {
+        return new RecipeIdFilter(Set.copyOf(recipeIds), false);
+    }
+
+    /**
+     * Filter matching every recipe but the given ones.
+     */
+    public static RecipeIdFilter excluding(Collection<String> recipeIds) {
+        return new RecipeIdFilter(Set.copyOf(recipeIds), true);
+    }
+
+    public boolean matches(String recipeId) {
+        return excluded != recipeIds.contains(recipeId);
+    }
+
+    public boolean matchesNone() {
+        return !excluded && recipeIds.isEmpty();
+    }
+}
@@ -0,0 +1,24 @@
+package com.nl.recipe.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Type RecipePage holds one page of recipes, or of their summaries, and the cursor of the page after it, null on the
+ * last page. Search pages may also carry the total number of matching recipes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipePage<T> {
+    private List<T> recipes;
+    private String nextCursor;
+    private Long totalCount;
+
+    public RecipePage(List<T> recipes, String nextCursor) {
+        this(recipes, nextCursor, null);
+    }
+}
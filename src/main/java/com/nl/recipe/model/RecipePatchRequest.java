@@ -0,0 +1,32 @@
+package com.nl.recipe.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Type RecipePatchRequest carries the fields of a partial recipe update, fields left null keep their current value.
+ * The ingredients, when given, become the complete ingredient list of the recipe.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipePatchRequest {
+    @Size(min = 1, message = "Please choose a category of the Recipe")
+    private String category;
+    private String instructions;
+    private Integer servings;
+    @Valid
+    @Size(min = 1, message = "Please specify the ingredients of recipe")
+    private List<Ingredient> ingredients;
+    /**
+     * Version the patch is based on, the patch is rejected when the recipe changed since.
+     */
+    private Long version;
+}
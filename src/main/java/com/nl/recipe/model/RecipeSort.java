@@ -0,0 +1,50 @@
+package com.nl.recipe.model;
+
+import com.nl.recipe.exception.InvalidSearchException;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Type RecipeSort is the order of a page of search results. Name and servings are keyset ordered with the recipe id
+ * breaking ties, relevance follows the full text ranking.
+ */
+public enum RecipeSort {
+    NAME("recipeName"),
+    SERVINGS("servings"),
+    RELEVANCE(null);
+
+    private final String attribute;
+
+    RecipeSort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * Recipe attribute the results are ordered by, null for relevance.
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Parses the sort requested by the client.
+     * @param sort name, servings or relevance in any case, null for the default.
+     * @param hasQuery whether the search has a full text query, the default is relevance with one and name without.
+     * @return the sort.
+     */
+    public static RecipeSort of(String sort, boolean hasQuery) {
+        if (Objects.isNull(sort)) {
+            return hasQuery ? RELEVANCE : NAME;
+        }
+        for (RecipeSort recipeSort : values()) {
+            if (recipeSort.name().equals(sort.trim().toUpperCase(Locale.ROOT))) {
+                if (recipeSort == RELEVANCE && !hasQuery) {
+                    throw new InvalidSearchException("Sorting by relevance needs a full text query");
+                }
+                return recipeSort;
+            }
+        }
+        throw new InvalidSearchException("Unknown sort " + sort + ", use name, servings or relevance");
+    }
+}
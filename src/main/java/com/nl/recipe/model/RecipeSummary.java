@@ -0,0 +1,30 @@
+package com.nl.recipe.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Type RecipeSummary is a recipe reduced to the fields a client asked for, read straight from the selected columns.
+ * Fields that were not asked for stay null and are left out of the response.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipeSummary {
+    private String recipeId;
+    private String recipeName;
+    private String category;
+    private String instructions;
+    private Integer servings;
+    private List<Ingredient> ingredients;
+    private Long version;
+
+    public RecipeSummary(String recipeId) {
+        this.recipeId = recipeId;
+    }
+}
@@ -10,4 +10,8 @@ public class RecipesFilterRequest {
     private Integer servings;
     private String instructions;
     private Map<String, Boolean> ingredients;
+    /**
+     * Free text matched against the recipe name and instructions, results are then ordered by relevance.
+     */
+    private String query;
 }
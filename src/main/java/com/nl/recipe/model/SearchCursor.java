@@ -0,0 +1,66 @@
+package com.nl.recipe.model;
+
+import com.nl.recipe.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Type SearchCursor is the position of a page of search results: the sort value and id of the last recipe for the
+ * keyset orders, the offset in the ranking for relevance. Clients only ever see it as an opaque url safe token.
+ */
+@Data
+@AllArgsConstructor
+public class SearchCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private RecipeSort sort;
+    private String recipeId;
+    private String value;
+
+    /**
+     * Cursor of the page starting at the given offset of the relevance ranking.
+     */
+    public static SearchCursor atOffset(int offset) {
+        return new SearchCursor(RecipeSort.RELEVANCE, "", Integer.toString(offset));
+    }
+
+    public int getOffset() {
+        return Integer.parseInt(value);
+    }
+
+    public int getServings() {
+        return Integer.parseInt(value);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sort.name() + SEPARATOR + recipeId + SEPARATOR + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()} for a search in the given order.
+     * @param token the opaque cursor sent by the client.
+     * @param sort the order of the search, a cursor of another order is refused.
+     * @return the position.
+     */
+    public static SearchCursor decode(String token, RecipeSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            if (parts.length != 3 || !parts[0].equals(sort.name()) || (sort != RecipeSort.RELEVANCE && parts[1].isEmpty())) {
+                throw new InvalidCursorException(token);
+            }
+            // servings and offsets must be numbers, offsets not negative
+            int number = sort == RecipeSort.NAME ? 0 : Integer.parseInt(parts[2]);
+            if (sort == RecipeSort.RELEVANCE && number < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new SearchCursor(sort, parts[1], parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.nl.recipe.repository;
+
+import com.nl.recipe.model.Ingredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IngredientRepository extends JpaRepository<Ingredient, Integer> {
+
+    List<Ingredient> findByNormalizedNameIn(Collection<String> normalizedNames);
+}
@@ -1,18 +1,29 @@
 package com.nl.recipe.repository;
 
 import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.RecipeField;
+import com.nl.recipe.model.RecipeIdFilter;
+import com.nl.recipe.model.RecipeSort;
+import com.nl.recipe.model.RecipeSummary;
 import com.nl.recipe.model.RecipesFilterRequest;
 import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.SearchCursor;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Type RecipeFilterRepository Handles the search or filter operation on the existing apis.
@@ -29,22 +40,152 @@ public class RecipeFilterRepository{
         this.criteriaBuilder = entityManager.getCriteriaBuilder();
     }
 
-    public List<Recipe> filterRecipiesByCriteria(RecipesFilterRequest recipesFilterRequest){
+    /**
+     * Finds the recipes matching the category, servings and instructions of the filter.
+     * @param recipesFilterRequest the filter criteria.
+     * @param recipeIds ids the result is restricted to or excluded from, resolved from the in memory indexes, or null for
+     *                  no restriction.
+     * @return matching recipes with their ingredients.
+     */
+    public List<Recipe> filterRecipiesByCriteria(RecipesFilterRequest recipesFilterRequest, RecipeIdFilter recipeIds){
+        TypedQuery<Recipe> typedQuery = entityManager.createQuery(buildQuery(recipesFilterRequest, recipeIds));
+        typedQuery.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Recipe.WITH_INGREDIENTS));
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * Finds the ids of the recipes matching the category, servings and instructions of the filter.
+     * @param recipesFilterRequest the filter criteria.
+     * @param recipeIds ids the result is restricted to or excluded from, or null for no restriction.
+     * @return ids of the matching recipes.
+     */
+    public List<String> findRecipeIdsByCriteria(RecipesFilterRequest recipesFilterRequest, RecipeIdFilter recipeIds){
+        CriteriaQuery<String> criteriaQuery = criteriaBuilder.createQuery(String.class);
+        Root<Recipe> recipeRoot = criteriaQuery.from(Recipe.class);
+        criteriaQuery.select(recipeRoot.get("recipeId"));
+        criteriaQuery.where(getPredicate(recipesFilterRequest, recipeRoot, recipeIds));
+        return entityManager.createQuery(criteriaQuery).getResultList();
+    }
+
+    /**
+     * Finds the positions of one page of the recipes matching the filter, in keyset order. Only the recipe id and the
+     * sort key are selected, which the (key, recipe_id) indexes cover.
+     * @param recipesFilterRequest the filter criteria.
+     * @param recipeIds ids the result is restricted to or excluded from, or null for no restriction.
+     * @param sort name or servings, recipe ids break the ties.
+     * @param after position of the previous page, null for the first page.
+     * @param limit maximum number of recipes.
+     * @return the id and sort value of each recipe of the page, in order.
+     */
+    public List<SearchCursor> findPagePositions(RecipesFilterRequest recipesFilterRequest, RecipeIdFilter recipeIds,
+                                                RecipeSort sort, SearchCursor after, int limit){
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<Recipe> recipeRoot = criteriaQuery.from(Recipe.class);
+        Predicate predicate = getPredicate(recipesFilterRequest, recipeRoot, recipeIds);
+        if (Objects.nonNull(after)) {
+            predicate = criteriaBuilder.and(predicate, sort == RecipeSort.SERVINGS
+                    ? isAfter(recipeRoot, recipeRoot.get(sort.getAttribute()), after.getServings(), after)
+                    : isAfter(recipeRoot, recipeRoot.get(sort.getAttribute()), after.getValue(), after));
+        }
+        criteriaQuery.multiselect(recipeRoot.get("recipeId"), recipeRoot.get(sort.getAttribute()))
+                .where(predicate)
+                .orderBy(criteriaBuilder.asc(recipeRoot.get(sort.getAttribute())), criteriaBuilder.asc(recipeRoot.get("recipeId")));
+        return entityManager.createQuery(criteriaQuery).setMaxResults(limit).getResultList().stream()
+                .map(tuple -> new SearchCursor(sort, tuple.get(0, String.class), String.valueOf(tuple.get(1))))
+                .toList();
+    }
+
+    /**
+     * Reads the requested fields of the recipes, selecting only their columns. The ingredients are read with a second
+     * query joining recipe_ingredient, which is skipped when they are not requested.
+     * @param recipeIds ids of the recipes.
+     * @param fields the requested fields, including the recipe id.
+     * @return the summaries, in no particular order. Ids without a recipe are skipped.
+     */
+    public List<RecipeSummary> findRecipeSummaries(Collection<String> recipeIds, Set<RecipeField> fields){
+        // the recipe id is always selected first, it keys the summaries
+        List<RecipeField> columns = Stream.concat(Stream.of(RecipeField.RECIPE_ID),
+                fields.stream().filter(field -> field.isColumn() && field != RecipeField.RECIPE_ID)).toList();
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<Recipe> recipeRoot = criteriaQuery.from(Recipe.class);
+        criteriaQuery.multiselect(columns.stream().<Selection<?>>map(field -> recipeRoot.get(field.getAttribute())).toList())
+                .where(recipeRoot.get("recipeId").in(recipeIds));
+        Map<String, RecipeSummary> summaries = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(criteriaQuery).getResultList()) {
+            RecipeSummary summary = new RecipeSummary(tuple.get(0, String.class));
+            for (int column = 1; column < columns.size(); column++) {
+                setField(summary, columns.get(column), tuple.get(column));
+            }
+            summaries.put(summary.getRecipeId(), summary);
+        }
+        if (fields.contains(RecipeField.INGREDIENTS) && !summaries.isEmpty()) {
+            summaries.values().forEach(summary -> summary.setIngredients(new ArrayList<>()));
+            CriteriaQuery<Tuple> ingredientQuery = criteriaBuilder.createTupleQuery();
+            Root<Recipe> ingredientRoot = ingredientQuery.from(Recipe.class);
+            Join<Recipe, Ingredient> ingredient = ingredientRoot.join("ingredients");
+            ingredientQuery.multiselect(ingredientRoot.get("recipeId"), ingredient.get("ingredientId"), ingredient.get("name"))
+                    .where(ingredientRoot.get("recipeId").in(summaries.keySet()))
+                    .orderBy(criteriaBuilder.asc(ingredient.get("name")));
+            for (Tuple tuple : entityManager.createQuery(ingredientQuery).getResultList()) {
+                summaries.get(tuple.get(0, String.class)).getIngredients()
+                        .add(new Ingredient(tuple.get(1, Integer.class), tuple.get(2, String.class)));
+            }
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
+    private static void setField(RecipeSummary summary, RecipeField field, Object value) {
+        switch (field) {
+            case RECIPE_NAME -> summary.setRecipeName((String) value);
+            case CATEGORY -> summary.setCategory((String) value);
+            case INSTRUCTIONS -> summary.setInstructions((String) value);
+            case SERVINGS -> summary.setServings((Integer) value);
+            case VERSION -> summary.setVersion((Long) value);
+            default -> throw new IllegalArgumentException("Not a column " + field);
+        }
+    }
+
+    /**
+     * Counts the recipes matching the category, servings and instructions of the filter.
+     * @param recipesFilterRequest the filter criteria.
+     * @param recipeIds ids the count is restricted to or excluded from, or null for no restriction.
+     * @return number of matching recipes.
+     */
+    public long countByCriteria(RecipesFilterRequest recipesFilterRequest, RecipeIdFilter recipeIds){
+        CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+        Root<Recipe> recipeRoot = criteriaQuery.from(Recipe.class);
+        criteriaQuery.select(criteriaBuilder.count(recipeRoot));
+        criteriaQuery.where(getPredicate(recipesFilterRequest, recipeRoot, recipeIds));
+        return entityManager.createQuery(criteriaQuery).getSingleResult();
+    }
+
+    /**
+     * Keyset condition of the rows after the cursor. The leading key >= value bound lets an index on the sort key
+     * start the scan at the cursor.
+     */
+    private <Y extends Comparable<? super Y>> Predicate isAfter(Root<Recipe> recipeRoot, Expression<Y> key, Y value, SearchCursor after) {
+        return criteriaBuilder.and(criteriaBuilder.greaterThanOrEqualTo(key, value),
+                criteriaBuilder.or(criteriaBuilder.greaterThan(key, value),
+                        criteriaBuilder.greaterThan(recipeRoot.get("recipeId"), after.getRecipeId())));
+    }
+
+    CriteriaQuery<Recipe> buildQuery(RecipesFilterRequest recipesFilterRequest, RecipeIdFilter recipeIds){
         CriteriaQuery<Recipe> criteriaQuery = criteriaBuilder.createQuery(Recipe.class);
         Root<Recipe> recipeRoot = criteriaQuery.from(Recipe.class);
-        ListJoin<Recipe, Ingredient> ingredients = recipeRoot.joinList("ingredients", JoinType.INNER);
-        Predicate predicate = getPredicate(recipesFilterRequest,recipeRoot,ingredients);
+        Predicate predicate = getPredicate(recipesFilterRequest,recipeRoot,recipeIds);
         criteriaQuery.where(predicate);
-        criteriaQuery.distinct(true);
-        TypedQuery<Recipe> typedQuery = entityManager.createQuery(criteriaQuery);
-        return typedQuery.getResultList();
+        return criteriaQuery;
     }
 
-    private Predicate getPredicate(RecipesFilterRequest recipesFilterRequest, Root<Recipe> recipeRoot, ListJoin<Recipe,Ingredient> ingredients){
+    private Predicate getPredicate(RecipesFilterRequest recipesFilterRequest, Root<Recipe> recipeRoot, RecipeIdFilter recipeIds){
         List<Predicate> predicates = new ArrayList<>();
 
         if (Objects.nonNull(recipesFilterRequest.getCategory())) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(recipeRoot.get("category")).as(String.class), criteriaBuilder.lower(criteriaBuilder.literal(recipesFilterRequest.getCategory()))));
+            Expression<String> category = criteriaBuilder.lower(criteriaBuilder.literal(recipesFilterRequest.getCategory()));
+            // a category without wildcards is compared for equality, which the category_key index serves directly
+            predicates.add(hasWildcard(recipesFilterRequest.getCategory())
+                    ? criteriaBuilder.like(recipeRoot.get("categoryKey"), category)
+                    : criteriaBuilder.equal(recipeRoot.get("categoryKey"), category));
         }
         if (Objects.nonNull(recipesFilterRequest.getServings())) {
             predicates.add(criteriaBuilder.equal(recipeRoot.get("servings"),  recipesFilterRequest.getServings()));
@@ -54,20 +195,14 @@ public class RecipeFilterRepository{
             predicates.add(criteriaBuilder.like(criteriaBuilder.lower(recipeRoot.get("instructions")).as(String.class), criteriaBuilder.lower(criteriaBuilder.literal(recipesFilterRequest.getInstructions()))));
         }
 
-        if (!CollectionUtils.isEmpty(recipesFilterRequest.getIngredients())) {
-            CriteriaBuilder.In<String> inClause= criteriaBuilder.in(criteriaBuilder.lower(ingredients.get("name")).as(String.class));
-            CriteriaBuilder.In<String> notInClause= criteriaBuilder.in(criteriaBuilder.lower(ingredients.get("name")).as(String.class));
-
-            recipesFilterRequest.getIngredients().forEach((ingredient, aBoolean) -> {
-                if (Boolean.TRUE.equals(aBoolean)) {
-                    inClause.value(criteriaBuilder.lower(criteriaBuilder.literal(ingredient)));
-                    predicates.add(inClause);
-                } else {
-                    notInClause.value(criteriaBuilder.lower(criteriaBuilder.literal(ingredient)));
-                    predicates.add(criteriaBuilder.not(notInClause));
-                }
-            });
+        if (Objects.nonNull(recipeIds) && !(recipeIds.isExcluded() && recipeIds.getRecipeIds().isEmpty())) {
+            Predicate indexed = recipeRoot.get("recipeId").in(recipeIds.getRecipeIds());
+            predicates.add(recipeIds.isExcluded() ? criteriaBuilder.not(indexed) : indexed);
         }
         return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     }
+
+    private static boolean hasWildcard(String pattern) {
+        return pattern.indexOf('%') >= 0 || pattern.indexOf('_') >= 0;
+    }
 }
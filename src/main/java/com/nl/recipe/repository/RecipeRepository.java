@@ -1,17 +1,72 @@
 package com.nl.recipe.repository;
 
 import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeCursor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, String> {
 
-    @Query(value = "SELECT r FROM Recipe r WHERE LOWER(r.category) = LOWER(CAST(?1 AS STRING))")
+    @Override
+    @EntityGraph(Recipe.WITH_INGREDIENTS)
+    Optional<Recipe> findById(String recipeId);
+
+    @EntityGraph(Recipe.WITH_INGREDIENTS)
+    @Query(value = "SELECT r FROM Recipe r WHERE r.categoryKey = LOWER(CAST(?1 AS STRING))")
     Optional<List<Recipe>> findByCategory(String category);
 
-    boolean existsByRecipeName(String recipeName);
+    @Query(value = "SELECT r FROM Recipe r ORDER BY r.recipeName, r.recipeId")
+    List<Recipe> findFirstPage(Limit limit);
+
+    /**
+     * The leading recipeName >= ?1 bound lets the (recipe_name, recipe_id) index start the scan at the cursor.
+     */
+    @Query(value = "SELECT r FROM Recipe r WHERE r.recipeName >= ?1 AND (r.recipeName > ?1 OR r.recipeId > ?2) ORDER BY r.recipeName, r.recipeId")
+    List<Recipe> findPageAfter(String recipeName, String recipeId, Limit limit);
+
+    /**
+     * Positions of the first page, read from the (recipe_name, recipe_id) index alone.
+     */
+    @Query(value = "SELECT new com.nl.recipe.model.RecipeCursor(r.recipeId, r.recipeName) FROM Recipe r ORDER BY r.recipeName, r.recipeId")
+    List<RecipeCursor> findFirstPagePositions(Limit limit);
+
+    @Query(value = "SELECT new com.nl.recipe.model.RecipeCursor(r.recipeId, r.recipeName) FROM Recipe r "
+            + "WHERE r.recipeName >= ?1 AND (r.recipeName > ?1 OR r.recipeId > ?2) ORDER BY r.recipeName, r.recipeId")
+    List<RecipeCursor> findPagePositionsAfter(String recipeName, String recipeId, Limit limit);
+
+    /**
+     * Scrolls over every recipe with a server side cursor, must be consumed inside a transaction and closed.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query(value = "SELECT r FROM Recipe r")
+    Stream<Recipe> streamAll();
+
+    @Query(value = "SELECT r.recipeName FROM Recipe r WHERE r.recipeName IN ?1")
+    Set<String> findExistingRecipeNames(Collection<String> recipeNames);
+
+    /**
+     * Deletes the recipes in one statement without loading them, their recipe_ingredient rows go with them through
+     * the ON DELETE CASCADE foreign key.
+     * @return number of deleted recipes.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM recipes WHERE recipe_id IN ?1", nativeQuery = true)
+    int deleteRecipes(Collection<String> recipeIds);
 }
\ No newline at end of file
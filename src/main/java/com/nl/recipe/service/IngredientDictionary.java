@@ -0,0 +1,90 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.exception.InvalidRecipeException;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.repository.IngredientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Type IngredientDictionary maps ingredient names to their dictionary entries, adding the names it has not seen yet.
+ */
+@Service
+@Slf4j
+public class IngredientDictionary {
+
+    private final IngredientRepository ingredientRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public IngredientDictionary(IngredientRepository ingredientRepository, PlatformTransactionManager transactionManager) {
+        this.ingredientRepository = ingredientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Resolves the ingredients against the dictionary with one lookup for the known names, the new names are
+     * inserted together in their own transaction so a concurrent insert of the same name only costs a re-read.
+     * Callers resolve before opening their own transaction, so a request never holds two pooled connections.
+     * @param ingredients ingredients as sent by the client, only their names are used.
+     * @return one dictionary entry per distinct normalized name, in the order of the given ingredients.
+     */
+    public Set<Ingredient> resolve(Collection<Ingredient> ingredients) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (Ingredient ingredient : ingredients) {
+            if (Objects.isNull(ingredient) || !StringUtils.hasText(ingredient.getName())) {
+                throw new InvalidRecipeException("Please specify the name of the ingredient");
+            }
+            names.putIfAbsent(Ingredient.normalize(ingredient.getName()), ingredient.getName().trim());
+        }
+        if (names.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "Ingredients are resolved before the caller's transaction starts");
+        Map<String, Ingredient> entries = ingredientRepository.findByNormalizedNameIn(names.keySet()).stream()
+                .collect(Collectors.toMap(Ingredient::getNormalizedName, Function.identity()));
+        Map<String, String> missing = new LinkedHashMap<>(names);
+        missing.keySet().removeAll(entries.keySet());
+        if (!missing.isEmpty()) {
+            addAll(missing, entries);
+        }
+        return names.keySet().stream().map(entries::get).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Inserts the missing names in one transaction, sent as jdbc batches. When another request added one of them
+     * first, the names are read back and the ones still missing are added one by one.
+     */
+    private void addAll(Map<String, String> missing, Map<String, Ingredient> entries) {
+        try {
+            transactionTemplate.execute(status -> ingredientRepository.saveAllAndFlush(missing.values().stream().map(Ingredient::new).toList()))
+                    .forEach(ingredient -> entries.put(ingredient.getNormalizedName(), ingredient));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Ingredients added concurrently, adding {} ingredients one by one", missing.size());
+            ingredientRepository.findByNormalizedNameIn(missing.keySet())
+                    .forEach(ingredient -> entries.put(ingredient.getNormalizedName(), ingredient));
+            missing.forEach((normalizedName, name) -> entries.computeIfAbsent(normalizedName, key -> add(key, name)));
+        }
+    }
+
+    private Ingredient add(String normalizedName, String name) {
+        try {
+            return transactionTemplate.execute(status -> ingredientRepository.saveAndFlush(new Ingredient(name)));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Ingredient {} added concurrently, reading it back", normalizedName);
+            return ingredientRepository.findByNormalizedNameIn(List.of(normalizedName)).stream().findFirst()
+                    .orElseThrow(() -> e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.config.SearchExecutorConfig;
+import com.nl.recipe.exception.InvalidSearchException;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipesFilterRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Type MultiSearchService runs a batch of searches concurrently on the search executor, running identical searches
+ * of the batch only once. Each search returns the first page of its recipes, capped like a single search.
+ */
+@Service
+@Slf4j
+public class MultiSearchService {
+
+    private final RecipeService recipeService;
+
+    private final TaskExecutor searchExecutor;
+
+    private final int maxSearches;
+
+    public MultiSearchService(RecipeService recipeService,
+                              @Qualifier(SearchExecutorConfig.SEARCH_EXECUTOR) TaskExecutor searchExecutor,
+                              @Value("${recipe.search.multi.max-searches:20}") int maxSearches) {
+        this.recipeService = recipeService;
+        this.searchExecutor = searchExecutor;
+        this.maxSearches = maxSearches;
+    }
+
+    /**
+     * Runs every search of the batch and waits for all of them.
+     * @param requests the search criteria, at most recipe.search.multi.max-searches of them.
+     * @param size number of recipes per search, capped at {@link RecipeService#MAX_PAGE_SIZE}.
+     * @return the first page of the recipes matching each search, in the order of the requests.
+     */
+    public List<List<Recipe>> searchRecipes(List<RecipesFilterRequest> requests, int size) {
+        if (requests.size() > maxSearches) {
+            throw new InvalidSearchException("A multi search accepts at most " + maxSearches + " searches");
+        }
+        if (requests.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidSearchException("A multi search cannot contain an empty search");
+        }
+        Map<RecipesFilterRequest, CompletableFuture<List<Recipe>>> searches = new HashMap<>();
+        for (RecipesFilterRequest request : requests) {
+            searches.computeIfAbsent(request, search ->
+                    CompletableFuture.supplyAsync(() -> recipeService.searchRecipes(search, null, null, size, false).getRecipes(),
+                            searchExecutor));
+        }
+        log.info("Multi search operation, {} searches run as {}", requests.size(), searches.size());
+        List<List<Recipe>> results = new ArrayList<>(requests.size());
+        try {
+            for (RecipesFilterRequest request : requests) {
+                results.add(searches.get(request).join());
+            }
+        } catch (CompletionException e) {
+            searches.values().forEach(search -> search.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+}
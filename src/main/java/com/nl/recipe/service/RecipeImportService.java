@@ -0,0 +1,137 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.event.RecipeChangedEvent;
+import com.nl.recipe.model.BulkImportResult;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.repository.RecipeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * @author Mohit Handa
+ *
+ * Type RecipeImportService loads many recipes at once: validation and the name collision check are done once for
+ * the whole request, and the inserts are sent in JDBC batches.
+ */
+@Service
+@Slf4j
+public class RecipeImportService {
+
+    private final RecipeRepository recipeRepository;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final IngredientDictionary ingredientDictionary;
+
+    public RecipeImportService(RecipeRepository recipeRepository, EntityManager entityManager, Validator validator,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                               @Value("${recipe.import.batch-size:50}") int batchSize,
+                               IngredientDictionary ingredientDictionary) {
+        this.recipeRepository = recipeRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.ingredientDictionary = ingredientDictionary;
+    }
+
+    /**
+     * Imports the recipes, each batch in its own transaction so a failing batch does not roll back the others.
+     * @param recipes the recipes to be saved.
+     * @return the outcome of every recipe.
+     */
+    public BulkImportResult importRecipes(List<Recipe> recipes) {
+        BulkImportResult.Item[] items = new BulkImportResult.Item[recipes.size()];
+        Set<String> requestedNames = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int index = 0; index < recipes.size(); index++) {
+            Recipe recipe = recipes.get(index);
+            Set<ConstraintViolation<Recipe>> violations = validator.validate(recipe);
+            if (!violations.isEmpty()) {
+                items[index] = BulkImportResult.Item.failed(index, recipe, violations.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")));
+            } else if (!requestedNames.add(recipe.getRecipeName())) {
+                items[index] = BulkImportResult.Item.failed(index, recipe, "Duplicate recipe name in request " + recipe.getRecipeName());
+            } else {
+                accepted.add(index);
+            }
+        }
+        Set<String> existingNames = CollectionUtils.isEmpty(requestedNames) ? Set.of()
+                : recipeRepository.findExistingRecipeNames(requestedNames);
+        List<Integer> toInsert = new ArrayList<>();
+        for (Integer index : accepted) {
+            Recipe recipe = recipes.get(index);
+            if (existingNames.contains(recipe.getRecipeName())) {
+                items[index] = BulkImportResult.Item.failed(index, recipe, "Recipe already exist with " + recipe.getRecipeName());
+            } else {
+                toInsert.add(index);
+            }
+        }
+        resolveIngredients(recipes, toInsert);
+        for (int from = 0; from < toInsert.size(); from += batchSize) {
+            List<Integer> batch = toInsert.subList(from, Math.min(from + batchSize, toInsert.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertBatch(recipes, batch));
+                batch.forEach(index -> items[index] = BulkImportResult.Item.created(index, recipes.get(index)));
+            } catch (RuntimeException e) {
+                log.error("Bulk import operation, batch of {} recipes failed", batch.size(), e);
+                batch.forEach(index -> items[index] = BulkImportResult.Item.failed(index, recipes.get(index), e.getMessage()));
+            }
+        }
+        int imported = (int) Arrays.stream(items).filter(item -> item.getStatus() == BulkImportResult.Status.CREATED).count();
+        log.info("Bulk import operation, Recipes imported {} of {}", imported, recipes.size());
+        return new BulkImportResult(imported, recipes.size() - imported, Arrays.asList(items));
+    }
+
+    /**
+     * Resolves the ingredients of every recipe to be inserted against the dictionary at once, before any batch
+     * starts, so the batches only insert recipes and their links.
+     */
+    private void resolveIngredients(List<Recipe> recipes, List<Integer> toInsert) {
+        if (toInsert.isEmpty()) {
+            return;
+        }
+        Map<String, Ingredient> entries = new HashMap<>();
+        ingredientDictionary.resolve(toInsert.stream().flatMap(index -> recipes.get(index).getIngredients().stream()).toList())
+                .forEach(ingredient -> entries.put(ingredient.getNormalizedName(), ingredient));
+        for (Integer index : toInsert) {
+            Recipe recipe = recipes.get(index);
+            recipe.setIngredients(recipe.getIngredients().stream()
+                    .map(ingredient -> entries.get(Ingredient.normalize(ingredient.getName())))
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+        }
+    }
+
+    private void insertBatch(List<Recipe> recipes, List<Integer> batch) {
+        for (Integer index : batch) {
+            Recipe recipe = recipes.get(index);
+            recipe.setRecipeId(null);
+            recipe.setVersion(null);
+            entityManager.persist(recipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.created(recipe));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,118 +1,552 @@
 package com.nl.recipe.service;
 
+import com.nl.recipe.cache.RecipeCacheConfig;
+import com.nl.recipe.cache.RecipeCacheVersions;
+import com.nl.recipe.cache.SearchResultCache;
+import com.nl.recipe.event.RecipeChangedEvent;
+import com.nl.recipe.exception.InvalidSearchException;
 import com.nl.recipe.exception.RecipeExistsException;
 import com.nl.recipe.exception.RecipeNotFoundException;
+import com.nl.recipe.index.FacetCounter;
+import com.nl.recipe.index.FullTextIndex;
+import com.nl.recipe.index.IngredientIndex;
+import com.nl.recipe.model.FacetedSearchResult;
 import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.RecipeFacets;
+import com.nl.recipe.model.RecipeIdFilter;
+import com.nl.recipe.model.RecipeField;
+import com.nl.recipe.model.RecipeCursor;
+import com.nl.recipe.model.RecipePage;
+import com.nl.recipe.model.RecipePatchRequest;
+import com.nl.recipe.model.RecipeSort;
+import com.nl.recipe.model.RecipeSummary;
 import com.nl.recipe.model.RecipesFilterRequest;
+import com.nl.recipe.model.SearchCursor;
 import com.nl.recipe.repository.RecipeRepository;
 import com.nl.recipe.model.Recipe;
 import com.nl.recipe.repository.RecipeFilterRepository;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * @author Mohit Handa
  *
- * Type RecipeService handles the api operations on recipes.
+ * Type RecipeService handles the api operations on recipes. Reads run in read only transactions, which the
+ * {@link com.nl.recipe.config.DataSourceConfig} routes to the replica pool.
  */
 @Service
 @Slf4j
 public class RecipeService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static final int DEFAULT_TOP_INGREDIENTS = 10;
+
+    public static final int MAX_TOP_INGREDIENTS = 100;
+
+    /**
+     * Recipes kept attached while exporting, matches the ingredient batch size so each chunk costs one extra query.
+     */
+    private static final int EXPORT_CHUNK_SIZE = 100;
+
+    /**
+     * Ids removed per delete statement, keeps the IN list of a bulk delete bounded.
+     */
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    /**
+     * Unique constraint on recipes.recipe_name, see V1__baseline.sql.
+     */
+    private static final String RECIPE_NAME_CONSTRAINT = "uk_recipes_recipe_name";
+
     private final RecipeRepository recipeRepository;
 
     private final RecipeFilterRepository recipeFilterRepository;
 
+    private final EntityManager entityManager;
+
+    private final IngredientIndex ingredientIndex;
+
+    private final FullTextIndex fullTextIndex;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final IngredientDictionary ingredientDictionary;
+
+    private final FacetCounter facetCounter;
+
+    private final SearchResultCache searchResultCache;
+
+    private final TransactionTemplate transactionTemplate;
+
     @Autowired
-    public RecipeService(RecipeRepository recipeRepository, RecipeFilterRepository recipeFilterRepository){
+    public RecipeService(RecipeRepository recipeRepository, RecipeFilterRepository recipeFilterRepository,
+                         EntityManager entityManager, IngredientIndex ingredientIndex, FullTextIndex fullTextIndex,
+                         ApplicationEventPublisher eventPublisher, IngredientDictionary ingredientDictionary,
+                         FacetCounter facetCounter, SearchResultCache searchResultCache,
+                         PlatformTransactionManager transactionManager){
         this.recipeRepository = recipeRepository;
         this.recipeFilterRepository = recipeFilterRepository;
+        this.entityManager = entityManager;
+        this.ingredientIndex = ingredientIndex;
+        this.fullTextIndex = fullTextIndex;
+        this.eventPublisher = eventPublisher;
+        this.ingredientDictionary = ingredientDictionary;
+        this.facetCounter = facetCounter;
+        this.searchResultCache = searchResultCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
-     * Adds a recipe to the database
+     * Adds a recipe to the database. The unique constraint on the recipe name decides whether the name is taken, so
+     * concurrent adds of the same name cost no extra lookup and exactly one of them succeeds.
      * @param recipe the recipe to be saved
      * @return
      */
     public Recipe addRecipe(Recipe recipe) {
-        if (recipeRepository.existsByRecipeName(recipe.getRecipeName())) {
+        recipe.setRecipeId(null);
+        recipe.setVersion(null);
+        recipe.setIngredients(ingredientDictionary.resolve(recipe.getIngredients()));
+        Recipe savedRecipe;
+        try {
+            savedRecipe = recipeRepository.saveAndFlush(recipe);
+        } catch (DataIntegrityViolationException e) {
+            if (!isRecipeNameViolation(e)) {
+                throw e;
+            }
             log.error("Add recipe Operation, Recipe already found");
             throw new RecipeExistsException("Recipe already exist with " + recipe.getRecipeName());
         }
         log.info("Add recipe operation, Recipe added {}",recipe.getRecipeName());
-        return recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.created(savedRecipe));
+        return savedRecipe;
     }
 
-    public List<Recipe> getAllRecipes() {
-        List<Recipe> recipesList = recipeRepository.findAll();
+    static boolean isRecipeNameViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && Objects.nonNull(violation.getConstraintName())
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(RECIPE_NAME_CONSTRAINT);
+    }
+
+    /**
+     * Gets one page of recipes ordered by name, starting after the given cursor.
+     * @param cursor cursor returned with the previous page, null for the first page.
+     * @param size requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @return the page and the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public RecipePage<Recipe> getAllRecipes(String cursor, int size) {
+        int pageSize = pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Recipe> recipesList;
+        if (Objects.isNull(cursor)) {
+            recipesList = recipeRepository.findFirstPage(limit);
+        } else {
+            RecipeCursor recipeCursor = RecipeCursor.decode(cursor);
+            recipesList = recipeRepository.findPageAfter(recipeCursor.getRecipeName(), recipeCursor.getRecipeId(), limit);
+        }
+        String nextCursor = null;
+        if (recipesList.size() > pageSize) {
+            recipesList = new ArrayList<>(recipesList.subList(0, pageSize));
+            nextCursor = RecipeCursor.of(recipesList.get(pageSize - 1)).encode();
+        }
+        // batch load the ingredients while the transaction is open, they are serialized after it ends
+        recipesList.forEach(recipe -> Hibernate.initialize(recipe.getIngredients()));
         log.info("Get all recipe operation, Total recipes found {}",recipesList.size());
-        return recipesList;
+        return new RecipePage<>(recipesList, nextCursor);
+    }
+
+    /**
+     * Gets one page of recipe summaries ordered by name, like {@link #getAllRecipes(String, int)} with the same
+     * cursors. The page is read from the name index, then only the requested columns of its recipes.
+     * @param cursor cursor returned with the previous page, null for the first page.
+     * @param size requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @param fields comma separated names of the fields to return.
+     * @return the page of summaries and the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public RecipePage<RecipeSummary> getRecipeSummaries(String cursor, int size, String fields) {
+        Set<RecipeField> recipeFields = RecipeField.parse(fields);
+        int pageSize = pageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<RecipeCursor> positions;
+        if (Objects.isNull(cursor)) {
+            positions = recipeRepository.findFirstPagePositions(limit);
+        } else {
+            RecipeCursor recipeCursor = RecipeCursor.decode(cursor);
+            positions = recipeRepository.findPagePositionsAfter(recipeCursor.getRecipeName(), recipeCursor.getRecipeId(), limit);
+        }
+        String nextCursor = null;
+        if (positions.size() > pageSize) {
+            positions = positions.subList(0, pageSize);
+            nextCursor = positions.get(pageSize - 1).encode();
+        }
+        log.info("Get all recipe summaries operation, Total recipes found {}",positions.size());
+        return new RecipePage<>(findSummariesInOrder(positions.stream().map(RecipeCursor::getRecipeId).toList(), recipeFields), nextCursor);
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Hands every recipe to the consumer while scrolling over the table. Recipes are consumed in chunks so their
+     * ingredients are batch loaded, and each chunk is detached once consumed so the persistence context never
+     * holds more than one chunk.
+     * @param consumer receives each recipe, with its ingredients initialized on access.
+     * @return number of exported recipes.
+     */
+    @Transactional(readOnly = true)
+    public long exportRecipes(Consumer<Recipe> consumer) {
+        long exported = 0;
+        List<Recipe> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        try (Stream<Recipe> recipes = recipeRepository.streamAll()) {
+            Iterator<Recipe> iterator = recipes.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+                    chunk.forEach(consumer);
+                    chunk.forEach(entityManager::detach);
+                    exported += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Export recipe operation, Total recipes exported {}",exported);
+        return exported;
     }
 
     /**
      * Updates a Recipe, Gets the existing recipe by id and compares the ingredients and other values updates the recipe
-     * with the latest details.
+     * with the latest details. When the recipe to be updated carries a version it must be the current one, so an
+     * update based on a stale read is rejected instead of overwriting a newer change. The ingredients are resolved
+     * before the update transaction starts, so adding new names never needs a second connection.
      * @param recipeToBeUpdated The recipe to be updated.
      * @return
      */
     public Recipe updateRecipeById(Recipe recipeToBeUpdated) {
         log.info("Update Operation, recipe to be updated: {}",recipeToBeUpdated.getRecipeId());
-        Recipe recipe = getRecipe(recipeToBeUpdated.getRecipeId());
-        if (!CollectionUtils.isEmpty(recipeToBeUpdated.getIngredients())) {
-            recipe.setIngredients(getDistinctIngredients(recipeToBeUpdated.getIngredients(), recipe.getIngredients()));
-        }
-        recipe.setCategory(Optional.ofNullable(recipeToBeUpdated.getCategory()).orElse(recipe.getCategory()));
-        recipe.setInstructions(Optional.ofNullable(recipeToBeUpdated.getInstructions()).orElse(recipe.getInstructions()));
-        recipe.setServings(Optional.of(recipeToBeUpdated.getServings()).orElse(recipe.getServings()));
-        return recipeRepository.save(recipe);
+        Set<Ingredient> ingredients = CollectionUtils.isEmpty(recipeToBeUpdated.getIngredients()) ? Set.of()
+                : ingredientDictionary.resolve(recipeToBeUpdated.getIngredients());
+        return transactionTemplate.execute(status -> {
+            Recipe recipe = getRecipe(recipeToBeUpdated.getRecipeId());
+            if (Objects.nonNull(recipeToBeUpdated.getVersion()) && !recipeToBeUpdated.getVersion().equals(recipe.getVersion())) {
+                log.error("Update Operation, recipe {} changed since version {}", recipe.getRecipeId(), recipeToBeUpdated.getVersion());
+                throw new ObjectOptimisticLockingFailureException(Recipe.class, recipe.getRecipeId());
+            }
+            recipe.getIngredients().addAll(ingredients);
+            recipe.setCategory(Optional.ofNullable(recipeToBeUpdated.getCategory()).orElse(recipe.getCategory()));
+            recipe.setInstructions(Optional.ofNullable(recipeToBeUpdated.getInstructions()).orElse(recipe.getInstructions()));
+            recipe.setServings(Optional.of(recipeToBeUpdated.getServings()).orElse(recipe.getServings()));
+            Recipe savedRecipe = recipeRepository.save(recipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.updated(savedRecipe));
+            return savedRecipe;
+        });
     }
 
+    /**
+     * Gets a recipe by id, served from the recipes cache when present. Cached recipes are keyed by their
+     * {@link RecipeCacheVersions} version read before loading them, so a recipe loaded while a change to it commits is
+     * stored under the retired version and never served.
+     * @param recipeId the recipe id.
+     * @return the recipe with its ingredients.
+     */
+    @Cacheable(cacheNames = RecipeCacheConfig.RECIPES, key = "{@recipeCacheVersions.recipe(#recipeId), #recipeId}")
+    @Transactional(readOnly = true)
     public Recipe getRecipe(String recipeId) {
         return recipeRepository.findById(recipeId)
                 .orElseThrow(() -> new RecipeNotFoundException("Recipe ", recipeId));
     }
 
-    private List<Ingredient> getDistinctIngredients(List<Ingredient> ingredients, List<Ingredient> newIngredients) {
-        return new ArrayList<>(Stream.of(ingredients, newIngredients)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Ingredient::getName)))));
-
+    /**
+     * Applies the supplied fields of the patch to the recipe, leaving the others untouched. The ingredients of the
+     * patch replace the current ones by difference, so only the removed and added recipe_ingredient rows are
+     * written, and the update statement only carries the changed columns. As with
+     * {@link #updateRecipeById(Recipe)} the ingredients are resolved before the transaction starts.
+     * @param recipeId the recipe id.
+     * @param patch the fields to change, null fields are kept.
+     * @return the patched recipe.
+     */
+    public Recipe patchRecipeById(String recipeId, RecipePatchRequest patch) {
+        log.info("Patch Operation, recipe to be patched: {}",recipeId);
+        Set<Ingredient> ingredients = Objects.isNull(patch.getIngredients()) ? null
+                : ingredientDictionary.resolve(patch.getIngredients());
+        return transactionTemplate.execute(status -> {
+            Recipe recipe = recipeRepository.findById(recipeId)
+                    .orElseThrow(() -> new RecipeNotFoundException("Recipe ", recipeId));
+            if (Objects.nonNull(patch.getVersion()) && !patch.getVersion().equals(recipe.getVersion())) {
+                log.error("Patch Operation, recipe {} changed since version {}", recipeId, patch.getVersion());
+                throw new ObjectOptimisticLockingFailureException(Recipe.class, recipeId);
+            }
+            Optional.ofNullable(patch.getCategory()).ifPresent(recipe::setCategory);
+            Optional.ofNullable(patch.getInstructions()).ifPresent(recipe::setInstructions);
+            Optional.ofNullable(patch.getServings()).ifPresent(recipe::setServings);
+            if (Objects.nonNull(ingredients)) {
+                recipe.getIngredients().retainAll(ingredients);
+                recipe.getIngredients().addAll(ingredients);
+            }
+            recipeRepository.flush();
+            eventPublisher.publishEvent(RecipeChangedEvent.updated(recipe));
+            return recipe;
+        });
     }
 
     /**
-     * Deletes the recipe by id.
+     * Deletes the recipe by id with a single statement.
      * @param recipeId The recipe Id to be deleted.
      */
     public Boolean deleteRecipeById(String recipeId) {
         log.info("Delete operation, Recipe {}",recipeId);
-        if (recipeRepository.existsById(recipeId)){
-            recipeRepository.deleteById(recipeId);
+        if (recipeRepository.deleteRecipes(List.of(recipeId)) > 0){
+            eventPublisher.publishEvent(RecipeChangedEvent.deleted(recipeId));
             return Boolean.TRUE;
         }
         return Boolean.FALSE;
     }
 
     /**
-     * Fetches all the recipes that satisfy the filter criteria.
+     * Deletes every recipe that satisfies the filter criteria. The matching ids are selected once so a change event
+     * can be published per recipe, then removed with set based deletes of up to {@link #DELETE_CHUNK_SIZE} ids.
+     * A filter without any criteria is refused rather than emptying the catalog.
+     * @param request The filter criteria
+     * @return number of deleted recipes
+     */
+    @Transactional
+    public int deleteRecipesByCriteria(RecipesFilterRequest request) {
+        if (isUnfiltered(request)) {
+            throw new InvalidSearchException("A delete needs at least one filter criterion");
+        }
+        log.info("Delete Recipe operation with filter criteria {}",request.toString());
+        RecipeIdFilter indexedIds = findIndexedIds(request, searchFullText(request));
+        if (indexedIds != null && indexedIds.matchesNone()) {
+            return 0;
+        }
+        List<String> recipeIds = recipeFilterRepository.findRecipeIdsByCriteria(request, indexedIds);
+        int deleted = 0;
+        for (int from = 0; from < recipeIds.size(); from += DELETE_CHUNK_SIZE) {
+            deleted += recipeRepository.deleteRecipes(recipeIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, recipeIds.size())));
+        }
+        recipeIds.forEach(recipeId -> eventPublisher.publishEvent(RecipeChangedEvent.deleted(recipeId)));
+        log.info("Delete Recipe operation, Total recipes deleted {}",deleted);
+        return deleted;
+    }
+
+    /**
+     * Fetches all the recipes that satisfy the filter criteria. Ingredient and full text filters are resolved
+     * against the in memory indexes, so only the matching ids reach the database. With a full text query the
+     * recipes are ordered by relevance. The matching ids are kept in the {@link SearchResultCache}, so repeating a
+     * search only loads its recipes by id until the catalog changes.
      * @param request The search criteria
      * @return Filtered list of recipes
      */
+    @Transactional(readOnly = true)
     public List<Recipe> searchRecipesByCriteria(RecipesFilterRequest request) {
         log.info("Filter Recipe operation with search criteria {}",request.toString());
-        return recipeFilterRepository.filterRecipiesByCriteria(request);
+        List<Recipe> searched = new ArrayList<>();
+        List<String> recipeIds = searchResultCache.get(request, () -> {
+            searched.addAll(findRecipesByCriteria(request));
+            return searched.stream().map(Recipe::getRecipeId).toList();
+        });
+        if (recipeIds.isEmpty() || !searched.isEmpty()) {
+            return searched;
+        }
+        return findRecipesInOrder(recipeIds);
+    }
+
+    /**
+     * Fetches one page of the recipes that satisfy the filter criteria. Name and servings pages are read in keyset
+     * order straight from the database, relevance pages are cut from the full text ranking. The ids of each page are
+     * kept in the {@link SearchResultCache} like full results, then its recipes are loaded by id.
+     * @param request The search criteria
+     * @param sort name, servings or relevance, null for relevance with a full text query and name without.
+     * @param cursor cursor returned with the previous page, null for the first page.
+     * @param size requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @param withTotal whether to count all the matching recipes, costing one more query.
+     * @return the page, the cursor of the next page and the total when asked for.
+     */
+    @Transactional(readOnly = true)
+    public RecipePage<Recipe> searchRecipes(RecipesFilterRequest request, String sort, String cursor, int size, boolean withTotal) {
+        SearchPageIds page = findSearchPage(request, sort, cursor, size, withTotal);
+        return new RecipePage<>(findRecipesInOrder(page.recipeIds()), page.nextCursor(), page.totalCount());
     }
 
     /**
-     * Chosen a category, returns all the recipes under the chosen category.
+     * Fetches one page of the summaries of the recipes that satisfy the filter criteria, paged like
+     * {@link #searchRecipes(RecipesFilterRequest, String, String, int, boolean)} but reading only the requested
+     * columns of the recipes of the page.
+     * @param fields comma separated names of the fields to return.
+     * @return the page of summaries, the cursor of the next page and the total when asked for.
+     */
+    @Transactional(readOnly = true)
+    public RecipePage<RecipeSummary> searchRecipeSummaries(RecipesFilterRequest request, String sort, String cursor, int size,
+                                                           boolean withTotal, String fields) {
+        Set<RecipeField> recipeFields = RecipeField.parse(fields);
+        SearchPageIds page = findSearchPage(request, sort, cursor, size, withTotal);
+        return new RecipePage<>(findSummariesInOrder(page.recipeIds(), recipeFields), page.nextCursor(), page.totalCount());
+    }
+
+    private SearchPageIds findSearchPage(RecipesFilterRequest request, String sort, String cursor, int size, boolean withTotal) {
+        log.info("Filter Recipe page operation with search criteria {}",request.toString());
+        int pageSize = pageSize(size);
+        RecipeSort recipeSort = RecipeSort.of(sort, StringUtils.hasText(request.getQuery()));
+        SearchCursor after = Objects.isNull(cursor) ? null : SearchCursor.decode(cursor, recipeSort);
+        return searchResultCache.get(request, new SearchPageKey(recipeSort, cursor, pageSize, withTotal),
+                () -> findPageIds(request, recipeSort, after, pageSize, withTotal));
+    }
+
+    private SearchPageIds findPageIds(RecipesFilterRequest request, RecipeSort sort, SearchCursor after, int pageSize, boolean withTotal) {
+        List<String> rankedIds = searchFullText(request);
+        RecipeIdFilter indexedIds = findIndexedIds(request, rankedIds);
+        if (indexedIds != null && indexedIds.matchesNone()) {
+            return new SearchPageIds(Collections.emptyList(), null, withTotal ? 0L : null);
+        }
+        if (sort == RecipeSort.RELEVANCE) {
+            Set<String> matches = new HashSet<>(recipeFilterRepository.findRecipeIdsByCriteria(request, indexedIds));
+            List<String> ranking = rankedIds.stream().filter(matches::contains).toList();
+            int from = Objects.isNull(after) ? 0 : Math.min(after.getOffset(), ranking.size());
+            int to = Math.min(from + pageSize, ranking.size());
+            return new SearchPageIds(List.copyOf(ranking.subList(from, to)),
+                    to < ranking.size() ? SearchCursor.atOffset(to).encode() : null,
+                    withTotal ? (long) ranking.size() : null);
+        }
+        List<SearchCursor> positions = recipeFilterRepository.findPagePositions(request, indexedIds, sort, after, pageSize + 1);
+        String nextCursor = null;
+        if (positions.size() > pageSize) {
+            positions = positions.subList(0, pageSize);
+            nextCursor = positions.get(pageSize - 1).encode();
+        }
+        return new SearchPageIds(positions.stream().map(SearchCursor::getRecipeId).toList(), nextCursor,
+                withTotal ? recipeFilterRepository.countByCriteria(request, indexedIds) : null);
+    }
+
+    private List<Recipe> findRecipesByCriteria(RecipesFilterRequest request) {
+        List<String> rankedIds = searchFullText(request);
+        RecipeIdFilter recipeIds = findIndexedIds(request, rankedIds);
+        if (recipeIds != null && recipeIds.matchesNone()) {
+            return Collections.emptyList();
+        }
+        List<Recipe> recipes = recipeFilterRepository.filterRecipiesByCriteria(request, recipeIds);
+        if (rankedIds != null) {
+            Map<String, Integer> ranks = new HashMap<>();
+            for (int rank = 0; rank < rankedIds.size(); rank++) {
+                ranks.put(rankedIds.get(rank), rank);
+            }
+            recipes = new ArrayList<>(recipes);
+            recipes.sort(Comparator.comparing(recipe -> ranks.get(recipe.getRecipeId())));
+        }
+        return recipes;
+    }
+
+    /**
+     * Loads the recipes of a cached search result by id, in the order of the result. Recipes deleted since are
+     * skipped.
+     */
+    private List<Recipe> findRecipesInOrder(List<String> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, Recipe> recipes = recipeFilterRepository.filterRecipiesByCriteria(new RecipesFilterRequest(), RecipeIdFilter.including(recipeIds)).stream()
+                .collect(Collectors.toMap(Recipe::getRecipeId, Function.identity()));
+        return recipeIds.stream().map(recipes::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<RecipeSummary> findSummariesInOrder(List<String> recipeIds, Set<RecipeField> fields) {
+        if (recipeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, RecipeSummary> summaries = recipeFilterRepository.findRecipeSummaries(recipeIds, fields).stream()
+                .collect(Collectors.toMap(RecipeSummary::getRecipeId, Function.identity()));
+        return recipeIds.stream().map(summaries::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<String> searchFullText(RecipesFilterRequest request) {
+        return StringUtils.hasText(request.getQuery()) ? fullTextIndex.search(request.getQuery()) : null;
+    }
+
+    /**
+     * Intersects the full text matches with the ingredient filter resolved against the in memory index.
+     * @param rankedIds full text matches, or null when the request has no query.
+     * @return ids matching both filters, or null when the request has neither. An ingredient filter alone may come back
+     * as the ids it excludes, when those are fewer.
+     */
+    private RecipeIdFilter findIndexedIds(RecipesFilterRequest request, List<String> rankedIds) {
+        RecipeIdFilter ingredientMatches = CollectionUtils.isEmpty(request.getIngredients()) ? null
+                : ingredientIndex.resolve(request.getIngredients());
+        if (rankedIds == null) {
+            return ingredientMatches;
+        }
+        return RecipeIdFilter.including(ingredientMatches == null ? rankedIds
+                : rankedIds.stream().filter(ingredientMatches::matches).toList());
+    }
+
+    /**
+     * Fetches one page of the recipes that satisfy the filter criteria together with the facet counts of all the
+     * matching recipes. The page is cut like {@link #searchRecipes(RecipesFilterRequest, String, String, int, boolean)}.
+     * The counts come from the {@link FacetCounter}, read directly for an empty filter and summed over the matching
+     * ids otherwise, without loading their recipes. They are kept in the {@link SearchResultCache} for the filter.
+     * @param request The search criteria
+     * @param sort name, servings or relevance, null for relevance with a full text query and name without.
+     * @param cursor cursor returned with the previous page, null for the first page.
+     * @param size requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @param topIngredients Number of ingredients in the ingredient facet, capped at {@link #MAX_TOP_INGREDIENTS}.
+     * @return One page of recipes, the cursor of the next page and the facets of the whole result
+     */
+    @Transactional(readOnly = true)
+    public FacetedSearchResult searchRecipesWithFacets(RecipesFilterRequest request, String sort, String cursor, int size,
+                                                       int topIngredients) {
+        int ingredientFacetSize = Math.min(Math.max(topIngredients, 0), MAX_TOP_INGREDIENTS);
+        RecipePage<Recipe> page = searchRecipes(request, sort, cursor, size, false);
+        RecipeFacets facets = isUnfiltered(request) ? facetCounter.facets(ingredientFacetSize)
+                : searchResultCache.get(request, new FacetKey(ingredientFacetSize),
+                        () -> facetCounter.facets(findMatchingIds(request), ingredientFacetSize));
+        return new FacetedSearchResult(page.getRecipes(), facets, page.getNextCursor());
+    }
+
+    private List<String> findMatchingIds(RecipesFilterRequest request) {
+        RecipeIdFilter indexedIds = findIndexedIds(request, searchFullText(request));
+        if (indexedIds != null && indexedIds.matchesNone()) {
+            return Collections.emptyList();
+        }
+        return recipeFilterRepository.findRecipeIdsByCriteria(request, indexedIds);
+    }
+
+    private static boolean isUnfiltered(RecipesFilterRequest request) {
+        return !StringUtils.hasText(request.getCategory()) && request.getServings() == null
+                && !StringUtils.hasText(request.getInstructions()) && CollectionUtils.isEmpty(request.getIngredients())
+                && !StringUtils.hasText(request.getQuery());
+    }
+
+    /**
+     * Chosen a category, returns all the recipes under the chosen category. Served from the recipesByCategory
+     * cache when present, keyed by the version and the lower cased category like {@link #getRecipe(String)}.
      * @param categoryType category type
      * @return List of recipes
      */
+    @Cacheable(cacheNames = RecipeCacheConfig.RECIPES_BY_CATEGORY,
+            key = "{@recipeCacheVersions.category(#categoryType), #categoryType.toLowerCase(T(java.util.Locale).ROOT)}")
+    @Transactional(readOnly = true)
     public List<Recipe> getRecipesByCategory(String categoryType) {
         log.info("Search by category operation, category {}",categoryType);
         Optional<List<Recipe>> recipeList = recipeRepository.findByCategory(categoryType);
@@ -122,4 +556,13 @@ public class RecipeService {
             throw new RecipeNotFoundException("No recipes found under :"+ categoryType);
         }
     }
+
+    private record SearchPageKey(RecipeSort sort, String cursor, int size, boolean withTotal) {
+    }
+
+    private record FacetKey(int topIngredients) {
+    }
+
+    private record SearchPageIds(List<String> recipeIds, String nextCursor, Long totalCount) {
+    }
 }
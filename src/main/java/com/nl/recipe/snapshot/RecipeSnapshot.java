@@ -0,0 +1,272 @@
+package com.nl.recipe.snapshot;
+
+import com.nl.recipe.model.Ingredient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Type RecipeSnapshot writes the whole catalog to a compact binary file and loads it back into an empty database.
+ * The file holds the ingredient dictionary followed by every recipe with the ids of its ingredients. Both are read
+ * in one serializable transaction so they agree. Strings are length prefixed utf-8. Restoring maps the file in
+ * memory and inserts it with jdbc batches, skipping the api, the validation and the entity layer.
+ */
+@Component
+@Slf4j
+public class RecipeSnapshot {
+
+    private static final int MAGIC = 0x52435053;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int RESTORE_BATCH_SIZE = 1000;
+
+    private static final byte RECIPE = 1;
+
+    private static final byte END_OF_RECIPES = 0;
+
+    private static final String SELECT_INGREDIENTS = "SELECT ingredient_id, name FROM ingredient ORDER BY ingredient_id";
+
+    private static final String SELECT_RECIPES = "SELECT r.recipe_id, r.recipe_name, r.category, r.instructions, r.servings, r.version, "
+            + "ri.ingredient_id FROM recipes r LEFT JOIN recipe_ingredient ri ON ri.recipe_id = r.recipe_id ORDER BY r.recipe_id";
+
+    private static final String INSERT_INGREDIENT = "INSERT INTO ingredient (ingredient_id, name, normalized_name) VALUES (?, ?, ?)";
+
+    private static final String INSERT_RECIPE = "INSERT INTO recipes (recipe_id, recipe_name, category, instructions, servings, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_RECIPE_INGREDIENT = "INSERT INTO recipe_ingredient (recipe_id, ingredient_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readTransaction;
+
+    private final TransactionTemplate writeTransaction;
+
+    private final Path path;
+
+    public RecipeSnapshot(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          @Value("${recipe.snapshot.path:recipes.snapshot}") Path path) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Writes the catalog to the snapshot path, through a temporary file so a failed write keeps the previous snapshot.
+     */
+    public SnapshotSummary write() throws IOException {
+        long start = System.currentTimeMillis();
+        Path absolutePath = path.toAbsolutePath();
+        Files.createDirectories(absolutePath.getParent());
+        Path temporary = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+        int[] counts;
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            counts = readTransaction.execute(status -> writeCatalog(output));
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temporary);
+            throw e.getCause();
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        SnapshotSummary summary = new SnapshotSummary(absolutePath.toString(), counts[1], counts[0], Files.size(absolutePath),
+                System.currentTimeMillis() - start);
+        log.info("Snapshot written {}", summary);
+        return summary;
+    }
+
+    /**
+     * Loads the snapshot into the database, which must not hold any recipe yet.
+     * @return the summary of the restored snapshot, null when there is no snapshot file.
+     */
+    public SnapshotSummary restore() throws IOException {
+        if (!Files.isRegularFile(path)) {
+            log.info("No snapshot to restore at {}", path.toAbsolutePath());
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " is too large to be mapped");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a recipe snapshot " + path);
+            }
+            int[] counts = writeTransaction.execute(status -> loadCatalog(buffer));
+            SnapshotSummary summary = new SnapshotSummary(path.toAbsolutePath().toString(), counts[1], counts[0],
+                    channel.size(), System.currentTimeMillis() - start);
+            log.info("Snapshot restored {}", summary);
+            return summary;
+        }
+    }
+
+    private int[] writeCatalog(DataOutputStream output) {
+        try {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            List<Object[]> ingredients = jdbcTemplate.query(SELECT_INGREDIENTS, (resultSet, row) ->
+                    new Object[]{resultSet.getInt(1), resultSet.getString(2)});
+            output.writeInt(ingredients.size());
+            for (Object[] ingredient : ingredients) {
+                output.writeInt((Integer) ingredient[0]);
+                writeString(output, (String) ingredient[1]);
+            }
+            RecipeRowWriter recipeRowWriter = new RecipeRowWriter(output);
+            jdbcTemplate.query(SELECT_RECIPES, recipeRowWriter::processRow);
+            recipeRowWriter.finish();
+            return new int[]{ingredients.size(), recipeRowWriter.recipes};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int[] loadCatalog(ByteBuffer buffer) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipes", Integer.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Cannot restore a snapshot over " + existing + " existing recipes");
+        }
+        int ingredientCount = buffer.getInt();
+        List<Object[]> ingredients = new ArrayList<>(ingredientCount);
+        int maxIngredientId = 0;
+        for (int i = 0; i < ingredientCount; i++) {
+            int ingredientId = buffer.getInt();
+            String name = readString(buffer);
+            ingredients.add(new Object[]{ingredientId, name, Ingredient.normalize(name)});
+            maxIngredientId = Math.max(maxIngredientId, ingredientId);
+        }
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT, ingredients);
+        // hibernate hands out blocks of 50 ids ending at the sequence value, start past the restored ids
+        jdbcTemplate.execute("ALTER SEQUENCE ingredient_seq RESTART WITH " + (maxIngredientId + 51));
+
+        int recipeCount = 0;
+        List<Object[]> recipes = new ArrayList<>(RESTORE_BATCH_SIZE);
+        List<Object[]> links = new ArrayList<>();
+        boolean hasNext = buffer.get() == RECIPE;
+        while (hasNext) {
+            String recipeId = readString(buffer);
+            recipes.add(new Object[]{recipeId, readString(buffer), readString(buffer), readString(buffer), buffer.getInt(), buffer.getLong()});
+            int linkCount = buffer.getInt();
+            for (int link = 0; link < linkCount; link++) {
+                links.add(new Object[]{recipeId, buffer.getInt()});
+            }
+            recipeCount++;
+            hasNext = buffer.get() == RECIPE;
+            if (recipes.size() == RESTORE_BATCH_SIZE || !hasNext) {
+                jdbcTemplate.batchUpdate(INSERT_RECIPE, recipes, new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                        Types.VARCHAR, Types.INTEGER, Types.BIGINT});
+                jdbcTemplate.batchUpdate(INSERT_RECIPE_INGREDIENT, links);
+                recipes.clear();
+                links.clear();
+            }
+        }
+        return new int[]{ingredientCount, recipeCount};
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the recipe rows as they are read, one row per ingredient of a recipe, ordered by recipe. Each recipe is
+     * preceded by a marker byte and the list ends with {@link #END_OF_RECIPES}, so nothing is buffered to count them.
+     */
+    private static final class RecipeRowWriter {
+
+        private final DataOutputStream output;
+        private final List<Integer> ingredientIds = new ArrayList<>();
+        private String recipeId;
+        private Object[] recipe;
+        private int recipes;
+
+        private RecipeRowWriter(DataOutputStream output) {
+            this.output = output;
+        }
+
+        private void processRow(ResultSet resultSet) throws SQLException {
+            String rowRecipeId = resultSet.getString(1);
+            if (!rowRecipeId.equals(recipeId)) {
+                flushRecipe();
+                recipeId = rowRecipeId;
+                recipe = new Object[]{resultSet.getString(2), resultSet.getString(3), resultSet.getString(4),
+                        resultSet.getInt(5), resultSet.getLong(6)};
+            }
+            int ingredientId = resultSet.getInt(7);
+            if (!resultSet.wasNull()) {
+                ingredientIds.add(ingredientId);
+            }
+        }
+
+        private void flushRecipe() {
+            if (recipeId == null) {
+                return;
+            }
+            try {
+                output.writeByte(RECIPE);
+                writeString(output, recipeId);
+                writeString(output, (String) recipe[0]);
+                writeString(output, (String) recipe[1]);
+                writeString(output, (String) recipe[2]);
+                output.writeInt((Integer) recipe[3]);
+                output.writeLong((Long) recipe[4]);
+                output.writeInt(ingredientIds.size());
+                for (Integer ingredientId : ingredientIds) {
+                    output.writeInt(ingredientId);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ingredientIds.clear();
+            recipes++;
+        }
+
+        private void finish() throws IOException {
+            flushRecipe();
+            output.writeByte(END_OF_RECIPES);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.nl.recipe.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Type RecipeSnapshotLifecycle restores the snapshot when the application starts, before the indexes are built, and
+ * writes a new one when it shuts down. A snapshot that fails to restore is never overwritten.
+ */
+@Component
+@ConditionalOnProperty(name = "recipe.snapshot.enabled", havingValue = "true")
+@Slf4j
+public class RecipeSnapshotLifecycle implements ApplicationRunner {
+
+    private final RecipeSnapshot recipeSnapshot;
+
+    private volatile boolean restored;
+
+    public RecipeSnapshotLifecycle(RecipeSnapshot recipeSnapshot) {
+        this.recipeSnapshot = recipeSnapshot;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            recipeSnapshot.restore();
+            restored = true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot {} could not be restored, starting without it and keeping the file", recipeSnapshot.getPath(), e);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        if (!restored) {
+            return;
+        }
+        try {
+            recipeSnapshot.write();
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot {} could not be written on shutdown", recipeSnapshot.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.nl.recipe.snapshot;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Type SnapshotEndpoint exposes the catalog snapshot as /actuator/snapshot: GET describes the current file and POST
+ * writes a new one.
+ */
+@Component
+@Endpoint(id = "snapshot")
+public class SnapshotEndpoint {
+
+    private final RecipeSnapshot recipeSnapshot;
+
+    public SnapshotEndpoint(RecipeSnapshot recipeSnapshot) {
+        this.recipeSnapshot = recipeSnapshot;
+    }
+
+    @ReadOperation
+    public Map<String, Object> snapshot() throws IOException {
+        Path path = recipeSnapshot.getPath().toAbsolutePath();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("path", path.toString());
+        snapshot.put("exists", Files.isRegularFile(path));
+        if (Files.isRegularFile(path)) {
+            snapshot.put("bytes", Files.size(path));
+            snapshot.put("lastModified", Files.getLastModifiedTime(path).toInstant());
+        }
+        return snapshot;
+    }
+
+    @WriteOperation
+    public SnapshotSummary write() throws IOException {
+        return recipeSnapshot.write();
+    }
+}
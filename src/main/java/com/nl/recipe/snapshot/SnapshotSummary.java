@@ -0,0 +1,19 @@
+package com.nl.recipe.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Type SnapshotSummary describes a snapshot written or restored: where, how much and how long it took.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SnapshotSummary {
+    private String path;
+    private int recipes;
+    private int ingredients;
+    private long bytes;
+    private long millis;
+}
@@ -0,0 +1,24 @@
+-- Schema as generated by hibernate before migrations were introduced.
+CREATE TABLE recipes (
+    recipe_id VARCHAR(255) NOT NULL,
+    category VARCHAR(255),
+    instructions VARCHAR(255),
+    recipe_name VARCHAR(255) NOT NULL,
+    servings INTEGER,
+    PRIMARY KEY (recipe_id),
+    CONSTRAINT uk_recipes_recipe_name UNIQUE (recipe_name)
+);
+
+CREATE TABLE ingredient (
+    ingredient_id UUID NOT NULL,
+    name VARCHAR(255),
+    PRIMARY KEY (ingredient_id)
+);
+
+CREATE TABLE recipes_ingredients (
+    recipe_recipe_id VARCHAR(255) NOT NULL,
+    ingredients_ingredient_id UUID NOT NULL,
+    CONSTRAINT uk_recipes_ingredients_ingredient UNIQUE (ingredients_ingredient_id),
+    CONSTRAINT fk_recipes_ingredients_recipe FOREIGN KEY (recipe_recipe_id) REFERENCES recipes,
+    CONSTRAINT fk_recipes_ingredients_ingredient FOREIGN KEY (ingredients_ingredient_id) REFERENCES ingredient
+);
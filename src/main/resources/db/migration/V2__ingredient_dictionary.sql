@@ -0,0 +1,36 @@
+-- Ingredients become a shared dictionary: one row per normalized (trimmed, lower cased) name with a compact
+-- integer id, linked to recipes through recipe_ingredient.
+CREATE TABLE ingredient_dictionary (
+    ingredient_id INTEGER NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    normalized_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (ingredient_id),
+    CONSTRAINT uk_ingredient_normalized_name UNIQUE (normalized_name)
+);
+
+INSERT INTO ingredient_dictionary (ingredient_id, name, normalized_name)
+SELECT ROW_NUMBER() OVER (ORDER BY normalized_name), MIN(name), normalized_name
+FROM (SELECT TRIM(name) AS name, LOWER(TRIM(name)) AS normalized_name FROM ingredient WHERE TRIM(name) <> '') names
+GROUP BY normalized_name;
+
+CREATE TABLE recipe_ingredient (
+    recipe_id VARCHAR(255) NOT NULL,
+    ingredient_id INTEGER NOT NULL,
+    PRIMARY KEY (recipe_id, ingredient_id),
+    CONSTRAINT fk_recipe_ingredient_recipe FOREIGN KEY (recipe_id) REFERENCES recipes ON DELETE CASCADE,
+    CONSTRAINT fk_recipe_ingredient_ingredient FOREIGN KEY (ingredient_id) REFERENCES ingredient_dictionary
+);
+
+INSERT INTO recipe_ingredient (recipe_id, ingredient_id)
+SELECT DISTINCT link.recipe_recipe_id, dictionary.ingredient_id
+FROM recipes_ingredients link
+JOIN ingredient old ON old.ingredient_id = link.ingredients_ingredient_id
+JOIN ingredient_dictionary dictionary ON dictionary.normalized_name = LOWER(TRIM(old.name));
+
+DROP TABLE recipes_ingredients;
+DROP TABLE ingredient;
+ALTER TABLE ingredient_dictionary RENAME TO ingredient;
+
+-- ids are handed out in blocks of 50 by hibernate, start past the last migrated block
+CREATE SEQUENCE ingredient_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE ingredient_seq RESTART WITH (SELECT COALESCE(MAX(ingredient_id), 0) + 51 FROM ingredient);
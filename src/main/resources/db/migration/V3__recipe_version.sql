@@ -0,0 +1,2 @@
+-- optimistic locking version of each recipe, incremented by hibernate on every update
+ALTER TABLE recipes ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,9 @@
+-- lower cased category maintained by the database: h2 has no functional indexes, so case insensitive category
+-- lookups compare against this indexed column instead of LOWER(category)
+ALTER TABLE recipes ADD COLUMN category_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(category));
+CREATE INDEX idx_recipes_category_key ON recipes (category_key);
+
+CREATE INDEX idx_recipes_servings ON recipes (servings);
+
+-- keyset pagination reads the recipes in (recipe_name, recipe_id) order from this index
+CREATE INDEX idx_recipes_name_id ON recipes (recipe_name, recipe_id);
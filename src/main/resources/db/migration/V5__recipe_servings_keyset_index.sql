@@ -0,0 +1,4 @@
+-- search pages sorted by servings read the recipes in (servings, recipe_id) order from this index,
+-- which also serves every lookup the single column index did
+DROP INDEX idx_recipes_servings;
+CREATE INDEX idx_recipes_servings_id ON recipes (servings, recipe_id);
@@ -0,0 +1,46 @@
+package com.nl.recipe;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type MetricsIntegrationTest Checks that endpoint, repository, connection pool and hibernate metrics are scraped.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:recipe-metrics-test")
+@AutoConfigureObservability
+class MetricsIntegrationTest {
+    private static final String HOST_NAME = "http://localhost:";
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("prometheus : GIVEN api calls THEN exposes latency histograms and database metrics")
+    void prometheus() {
+        restTemplate.getForEntity(HOST_NAME + port + "/recipes", String.class);
+        restTemplate.getForEntity(HOST_NAME + port + "/recipes/category/Desert", String.class);
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(HOST_NAME + port + "/actuator/prometheus", String.class);
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/recipes/category/{category}\"")
+                .contains("recipe_repository_seconds{")
+                .contains("method=\"findFirstPage\"")
+                .contains("repository=\"RecipeRepository\"")
+                .contains("quantile=\"0.99\"")
+                .contains("hikaricp_connections_acquire_seconds_bucket{")
+                .contains("hikaricp_connections_pending{")
+                .contains("hibernate_query_executions_total{");
+    }
+}
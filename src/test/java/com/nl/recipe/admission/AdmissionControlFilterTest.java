@@ -0,0 +1,109 @@
+package com.nl.recipe.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nl.recipe.model.ErrorDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(objectMapper, meterRegistry, 1, 1, 1, Duration.ofMillis(10));
+
+    @Test
+    @DisplayName("doFilter : GIVEN a search running at the limit THEN refuses the next search with 429 and still serves other endpoints")
+    void rejectsOverTheLimit() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            entered.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(request("POST", "/search/recipes"), new MockHttpServletResponse(), blockingChain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        entered.await();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/search/recipes/faceted"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(AdmissionControlFilter.RETRY_AFTER_SECONDS);
+        assertThat(objectMapper.readValue(rejected.getContentAsByteArray(), ErrorDetails.class).getDetails())
+                .isEqualTo("uri=/search/recipes/faceted");
+        assertThat(meterRegistry.get("recipe.admission.rejected").tag("endpoint", "search").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("recipe.admission.queue").tag("endpoint", "search").tag("outcome", "rejected").timer().count()).isEqualTo(1);
+
+        assertThat(status("GET", "/recipes")).isEqualTo(HttpStatus.OK.value());
+        assertThat(status("GET", "/recipe/1")).isEqualTo(HttpStatus.OK.value());
+
+        finish.countDown();
+        running.get();
+        assertThat(status("POST", "/search/recipes")).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("doFilter : GIVEN a streamed export THEN keeps its permit until the async request completes")
+    void releasesAsyncRequestOnCompletion() throws Exception {
+        MockHttpServletRequest export = request("GET", "/recipes/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        assertThat(status("GET", "/recipes/export")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        export.getAsyncContext().complete();
+        assertThat(status("GET", "/recipes/export")).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("doFilter : GIVEN a list request answered 304 THEN gives its permit back before it completes")
+    void releasesNotModifiedListRequestsEarly() throws Exception {
+        filter.doFilter(request("GET", "/recipes"), new MockHttpServletResponse(), (request, response) -> {
+            assertThat(status("GET", "/recipes")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+            AdmissionControlFilter.releaseEarly(new ServletWebRequest((HttpServletRequest) request));
+            AdmissionControlFilter.releaseEarly(new ServletWebRequest((HttpServletRequest) request));
+            assertThat(status("GET", "/recipes")).isEqualTo(HttpStatus.OK.value());
+        });
+        assertThat(status("GET", "/recipes")).isEqualTo(HttpStatus.OK.value());
+        assertThat(meterRegistry.get("recipe.admission.in.flight").tag("endpoint", "list").gauge().value()).isZero();
+    }
+
+    private int status(String method, String uri) throws IOException, ServletException {
+        return status(request(method, uri));
+    }
+
+    private int status(MockHttpServletRequest request) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
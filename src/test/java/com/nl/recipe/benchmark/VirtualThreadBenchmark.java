@@ -0,0 +1,129 @@
+package com.nl.recipe.benchmark;
+
+import com.nl.recipe.RecipeApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Type VirtualThreadBenchmark starts the api once on platform threads and once on virtual threads, and drives both
+ * with the same number of concurrent clients reading pages of recipes, printing throughput and latency percentiles.
+ * Only successful responses count towards them, the requests refused by admission control with 429, or failing
+ * otherwise, are reported apart. Pass -Dadmission=false to lift the list limit to the number of clients and compare the
+ * threading modes alone. Not a unit test, run its main method with -Dconcurrency and -Drequests, see the README.
+ */
+public final class VirtualThreadBenchmark {
+
+    private static final int RECIPES = 1000;
+
+    private VirtualThreadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("concurrency", 1000);
+        int requests = Integer.getInteger("requests", 50000);
+        run("platform", concurrency, requests, "--spring.threads.virtual.enabled=false");
+        if (Runtime.version().feature() >= 21) {
+            run("virtual", concurrency, requests, "--spring.profiles.active=virtual");
+        } else {
+            System.out.println("virtual: skipped, needs Java 21 but running on " + Runtime.version());
+        }
+    }
+
+    private static void run(String mode, int concurrency, int requests, String... modeArgs) throws Exception {
+        List<String> args = new ArrayList<>(Arrays.asList(modeArgs));
+        args.add("--server.port=0");
+        args.add("--spring.datasource.url=jdbc:h2:mem:benchmark-" + mode);
+        args.add("--spring.jpa.show-sql=false");
+        if (!Boolean.parseBoolean(System.getProperty("admission", "true"))) {
+            args.add("--recipe.admission.list.max-concurrent=" + concurrency);
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RecipeApiApplication.class)
+                .run(args.toArray(new String[0]))) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            seed(httpClient, baseUrl);
+            URI uri = URI.create(baseUrl + "/recipes?size=20");
+            drive(httpClient, uri, concurrency, Math.max(requests / 10, concurrency));
+            report(mode, concurrency, drive(httpClient, uri, concurrency, requests));
+        }
+    }
+
+    private static void seed(HttpClient httpClient, String baseUrl) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < RECIPES; i++) {
+            body.append(String.format("{\"recipeName\":\"Benchmark %d\",\"category\":\"Category %d\",\"instructions\":\"Bake\","
+                    + "\"servings\":%d,\"ingredients\":[{\"name\":\"Flour\"},{\"name\":\"Egg %d\"}]}%n", i, i % 10, i % 6 + 1, i));
+        }
+        httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/recipes/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Sends the requests from a fixed number of client threads, recording the latency of each successful request in
+     * nanoseconds and counting the others.
+     */
+    private static Run drive(HttpClient httpClient, URI uri, int concurrency, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < concurrency; client++) {
+                futures.add(clients.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        long sent = System.nanoTime();
+                        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        long latency = System.nanoTime() - sent;
+                        if (status >= 200 && status < 300) {
+                            latencies[succeeded.getAndIncrement()] = latency;
+                        } else if (status == 429) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+        return new Run(Arrays.copyOf(latencies, succeeded.get()), requests, rejected.get(), System.nanoTime() - start);
+    }
+
+    private static void report(String mode, int concurrency, Run run) {
+        long[] sorted = run.latencies().clone();
+        Arrays.sort(sorted);
+        int succeeded = sorted.length;
+        double seconds = run.elapsed() / 1e9;
+        int failed = run.requests() - succeeded - run.rejected();
+        System.out.printf("%s: %d clients, %d requests, %d ok, %d rejected with 429, %d failed, %.0f ok/s, p50 %.1f ms, p99 %.1f ms%n",
+                mode, concurrency, run.requests(), succeeded, run.rejected(), failed, succeeded / seconds,
+                succeeded == 0 ? 0 : sorted[succeeded / 2] / 1e6, succeeded == 0 ? 0 : sorted[(int) (succeeded * 0.99)] / 1e6);
+    }
+
+    /**
+     * Latencies of the successful requests of a run, the number of requests sent and refused, and the wall clock
+     * time of the whole run.
+     */
+    private record Run(long[] latencies, int requests, int rejected, long elapsed) {
+    }
+}
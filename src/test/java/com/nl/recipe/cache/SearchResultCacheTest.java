@@ -0,0 +1,77 @@
+package com.nl.recipe.cache;
+
+import com.nl.recipe.event.RecipeChangedEvent;
+import com.nl.recipe.model.RecipesFilterRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final SearchResultCache searchResultCache =
+            new SearchResultCache(new ConcurrentMapCacheManager(RecipeCacheConfig.SEARCH_RESULTS), catalogVersion);
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    @DisplayName("canonicalKey : GIVEN filters differing only in casing and ingredient order THEN gives the same key")
+    void canonicalKey() {
+        Map<String, Boolean> ingredients = new LinkedHashMap<>();
+        ingredients.put("Flour", true);
+        ingredients.put("salt", false);
+        Map<String, Boolean> reordered = new LinkedHashMap<>();
+        reordered.put(" SALT", false);
+        reordered.put("flour", true);
+
+        assertThat(SearchResultCache.canonicalKey(1, filter("Desert", ingredients, "banana  Bread"), null))
+                .isEqualTo(SearchResultCache.canonicalKey(1, filter("DESERT", reordered, " Banana bread"), null));
+        assertThat(SearchResultCache.canonicalKey(1, filter("Desert", ingredients, null), null))
+                .isNotEqualTo(SearchResultCache.canonicalKey(1, filter(" Desert", ingredients, null), null))
+                .isNotEqualTo(SearchResultCache.canonicalKey(1, filter("", ingredients, null), null))
+                .isNotEqualTo(SearchResultCache.canonicalKey(2, filter("Desert", ingredients, null), null));
+    }
+
+    @Test
+    @DisplayName("get : GIVEN a repeated search THEN runs it once until the catalog changes")
+    void get() {
+        RecipesFilterRequest request = filter("Desert", Map.of("flour", true), null);
+        assertThat(searchResultCache.get(request, () -> search("1", "2"))).containsExactly("1", "2");
+        assertThat(searchResultCache.get(filter("desert", Map.of("Flour", true), null), () -> search("3"))).containsExactly("1", "2");
+        assertThat(searches).hasValue(1);
+
+        catalogVersion.onRecipeChanged(RecipeChangedEvent.deleted("1"));
+        assertThat(searchResultCache.get(request, () -> search("2"))).containsExactly("2");
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("get : GIVEN a result larger than the cached maximum THEN runs the search every time")
+    void getLargeResult() {
+        List<String> recipeIds = IntStream.rangeClosed(0, SearchResultCache.MAX_CACHED_IDS).mapToObj(Integer::toString).toList();
+        RecipesFilterRequest request = filter("Desert", null, null);
+        searchResultCache.get(request, () -> search(recipeIds.toArray(String[]::new)));
+        searchResultCache.get(request, () -> search(recipeIds.toArray(String[]::new)));
+        assertThat(searches).hasValue(2);
+    }
+
+    private List<String> search(String... recipeIds) {
+        searches.incrementAndGet();
+        return List.of(recipeIds);
+    }
+
+    private static RecipesFilterRequest filter(String category, Map<String, Boolean> ingredients, String query) {
+        RecipesFilterRequest request = new RecipesFilterRequest();
+        request.setCategory(category);
+        request.setIngredients(ingredients);
+        request.setQuery(query);
+        return request;
+    }
+}
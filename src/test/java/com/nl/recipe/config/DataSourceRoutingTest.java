@@ -0,0 +1,111 @@
+package com.nl.recipe.config;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipesFilterRequest;
+import com.nl.recipe.service.RecipeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type DataSourceRoutingTest Checks that writes borrow connections from the primary pool and read only operations
+ * from the replica pool, using the connection usage count of each pool. The http requests check that no connection
+ * outlives its transaction, so a request reading before it writes still writes through the primary.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:recipe-routing-test")
+@AutoConfigureObservability
+class DataSourceRoutingTest {
+
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @LocalServerPort
+    private int port;
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @Test
+    @DisplayName("dataSource : GIVEN a write and then reads THEN the write uses the primary pool and the reads the replica pool")
+    void routesByTransaction() {
+        long primary = usages("primary");
+        long replica = usages("replica");
+        Recipe recipe = recipeService.addRecipe(recipe("Routed Soup", "Routed"));
+        assertThat(usages("primary")).isGreaterThan(primary);
+        assertThat(usages("replica")).isEqualTo(replica);
+
+        primary = usages("primary");
+        RecipesFilterRequest request = new RecipesFilterRequest();
+        request.setCategory("Routed");
+        assertThat(recipeService.getRecipe(recipe.getRecipeId()).getRecipeName()).isEqualTo("Routed Soup");
+        assertThat(recipeService.getRecipesByCategory("Routed")).hasSize(1);
+        assertThat(recipeService.searchRecipesByCriteria(request)).hasSize(1);
+        assertThat(recipeService.getAllRecipes(null, RecipeService.DEFAULT_PAGE_SIZE).getRecipes()).isNotEmpty();
+        assertThat(usages("replica")).isEqualTo(replica + 4);
+        assertThat(usages("primary")).isEqualTo(primary);
+    }
+
+    @Test
+    @DisplayName("dataSource : GIVEN a PUT reading the recipe before saving it THEN the whole update uses the primary pool")
+    void routesUpdateRequestToPrimary() {
+        Recipe recipe = recipeService.addRecipe(recipe("Routed Stew", "Routed Stews"));
+        long primary = usages("primary");
+        long replica = usages("replica");
+
+        ResponseEntity<String> response = restTemplate.exchange(url("/recipe"), HttpMethod.PUT,
+                new HttpEntity<>(recipe.toBuilder().instructions("Simmer").build()), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(usages("primary")).isGreaterThan(primary);
+        assertThat(usages("replica")).isEqualTo(replica);
+        assertThat(recipeService.getRecipesByCategory("Routed Stews")).extracting(Recipe::getInstructions).containsExactly("Simmer");
+    }
+
+    @Test
+    @DisplayName("dataSource : GIVEN list and search requests THEN they only use the replica pool")
+    void routesReadRequestsToReplica() {
+        recipeService.addRecipe(recipe("Routed Bread", "Routed Breads"));
+        long primary = usages("primary");
+        long replica = usages("replica");
+        RecipesFilterRequest request = new RecipesFilterRequest();
+        request.setCategory("Routed Breads");
+
+        assertThat(restTemplate.getForEntity(url("/recipes/category/Routed Breads"), String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity(url("/recipes"), String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.postForEntity(url("/search/recipes"), request, String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(usages("replica")).isEqualTo(replica + 3);
+        assertThat(usages("primary")).isEqualTo(primary);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private static Recipe recipe(String recipeName, String category) {
+        return Recipe.builder()
+                .recipeName(recipeName)
+                .category(category)
+                .instructions("Boil")
+                .servings(2)
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Water"), new Ingredient("Salt")))
+                .build();
+    }
+
+    private long usages(String pool) {
+        return meterRegistry.get("hikaricp.connections.usage").tag("pool", pool).timer().count();
+    }
+}
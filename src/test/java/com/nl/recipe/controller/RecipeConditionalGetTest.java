@@ -0,0 +1,109 @@
+package com.nl.recipe.controller;
+
+import com.nl.recipe.model.ErrorDetails;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.util.Sets;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type RecipeConditionalGetTest Checks that the read endpoints answer 304 for an unchanged catalog without reading the
+ * database, and that updates based on a stale version are rejected.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:recipe-conditional-get-test",
+                "spring.jpa.properties.hibernate.generate_statistics=true"})
+class RecipeConditionalGetTest {
+    private static final String HOST_NAME = "http://localhost:";
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN the ETag of an unchanged catalog THEN answers 304 without querying the database")
+    void getAllRecipesNotModified() {
+        String category = "Conditional " + UUID.randomUUID();
+        addRecipe(category);
+        ResponseEntity<String> recipes = restTemplate.getForEntity(HOST_NAME + port + "/recipes", String.class);
+        String eTag = recipes.getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+        assertThat(recipes.getHeaders().getLastModified()).isPositive();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(get("/recipes", eTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(get("/recipes/category/" + category, eTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        addRecipe(category);
+        ResponseEntity<String> changed = get("/recipes", eTag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN only the Last-Modified date of an unchanged catalog THEN answers 304")
+    void getAllRecipesNotModifiedSince() {
+        addRecipe("Conditional " + UUID.randomUUID());
+        long lastModified = restTemplate.getForEntity(HOST_NAME + port + "/recipes", String.class).getHeaders().getLastModified();
+        assertThat(lastModified % 1000).isZero();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(lastModified);
+        assertThat(restTemplate.exchange(HOST_NAME + port + "/recipes", HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("updateRecipeById : GIVEN a recipe with a stale version THEN answers 409 and keeps the newer change")
+    void updateRecipeWithStaleVersion() {
+        Recipe recipe = addRecipe("Conditional " + UUID.randomUUID());
+        assertThat(recipe.getVersion()).isZero();
+        assertThat(put(recipe.toBuilder().instructions("Bake for an hour").build()).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<ErrorDetails> conflict = restTemplate.exchange(HOST_NAME + port + "/recipe", HttpMethod.PUT,
+                new HttpEntity<>(recipe.toBuilder().instructions("Fry").build()), ErrorDetails.class);
+        assertThat(conflict.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        Recipe stored = restTemplate.getForObject(HOST_NAME + port + "/recipes/category/" + recipe.getCategory(), Recipe[].class)[0];
+        assertThat(stored.getInstructions()).isEqualTo("Bake for an hour");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    private Recipe addRecipe(String category) {
+        Recipe recipe = Recipe.builder()
+                .recipeName("Conditional " + UUID.randomUUID())
+                .category(category)
+                .instructions("Bake in the oven")
+                .servings(2)
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Flour"), new Ingredient("Egg")))
+                .build();
+        return Objects.requireNonNull(restTemplate.postForEntity(HOST_NAME + port + "/recipe", recipe, Recipe.class).getBody());
+    }
+
+    private ResponseEntity<String> get(String path, String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        return restTemplate.exchange(HOST_NAME + port + path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> put(Recipe recipe) {
+        return restTemplate.exchange(HOST_NAME + port + "/recipe", HttpMethod.PUT, new HttpEntity<>(recipe), String.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.nl.recipe.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type RecipeContentNegotiationTest Checks that the list endpoints answer in cbor when asked to and compress large
+ * responses for clients accepting gzip.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:recipe-content-negotiation-test")
+class RecipeContentNegotiationTest {
+    private static final String HOST_NAME = "http://localhost:";
+    private static final int RECIPES = 40;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < RECIPES; i++) {
+            recipes.add(Recipe.builder()
+                    .recipeName("Encoded " + UUID.randomUUID())
+                    .category("Encoded")
+                    .instructions("Mix the ingredients and bake in the oven")
+                    .servings(i % 4 + 1)
+                    .ingredients(Sets.newLinkedHashSet(new Ingredient("Flour"), new Ingredient("Egg"), new Ingredient("Milk")))
+                    .build());
+        }
+        new TestRestTemplate().postForEntity(HOST_NAME + port + "/recipes/bulk", recipes, String.class);
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN a client accepting cbor THEN returns the same recipes in fewer bytes than json")
+    void getAllRecipesAsCbor() throws Exception {
+        HttpResponse<byte[]> json = get("application/json", "identity");
+        HttpResponse<byte[]> cbor = get("application/cbor", "identity");
+        assertThat(cbor.statusCode()).isEqualTo(200);
+        assertThat(cbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+        assertThat(cbor.headers().firstValue("ETag")).isNotEqualTo(json.headers().firstValue("ETag"));
+
+        Recipe[] fromJson = new ObjectMapper().readValue(json.body(), Recipe[].class);
+        Recipe[] fromCbor = new CBORMapper().readValue(cbor.body(), Recipe[].class);
+        assertThat(fromCbor).hasSize(RECIPES).containsExactly(fromJson);
+        assertThat(cbor.body().length).isLessThan(json.body().length);
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN accept headers weighing json and cbor THEN tags each response after the representation sent")
+    void getAllRecipesTaggedByRepresentation() throws Exception {
+        String jsonTag = get("application/json", "identity").headers().firstValue("ETag").orElseThrow();
+        String cborTag = get("application/cbor", "identity").headers().firstValue("ETag").orElseThrow();
+        assertRepresentation("application/json, application/cbor;q=0.1", "application/json", jsonTag);
+        assertRepresentation("application/json;q=0.5, application/cbor", "application/cbor", cborTag);
+        assertRepresentation("*/*;q=0.5, application/cbor", "application/cbor", cborTag);
+        assertRepresentation("application/*", "application/json", jsonTag);
+    }
+
+    private void assertRepresentation(String accept, String contentType, String eTag) throws Exception {
+        HttpResponse<byte[]> response = get(accept, "identity");
+        assertThat(response.headers().firstValue("Content-Type")).as(accept).hasValue(contentType);
+        assertThat(response.headers().firstValue("ETag")).as(accept).hasValue(eTag);
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN a client accepting gzip THEN compresses the response")
+    void getAllRecipesCompressed() throws Exception {
+        HttpResponse<byte[]> plain = get("application/json", "identity");
+        HttpResponse<byte[]> compressed = get("application/json", "gzip");
+        assertThat(compressed.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(compressed.body().length).isLessThan(plain.body().length);
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed.body()))) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(plain.body());
+        }
+    }
+
+    private HttpResponse<byte[]> get(String accept, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(HOST_NAME + port + "/recipes?size=" + RECIPES))
+                .header("Accept", accept)
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -1,10 +1,13 @@
 package com.nl.recipe.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nl.recipe.model.BulkDeleteResult;
 import com.nl.recipe.model.ErrorDetails;
+import com.nl.recipe.model.FacetedSearchResult;
 import com.nl.recipe.model.Ingredient;
 import com.nl.recipe.model.Recipe;
 import com.nl.recipe.model.RecipesFilterRequest;
-import org.assertj.core.util.Lists;
+import org.assertj.core.util.Sets;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
@@ -51,18 +54,37 @@ class RecipeControllerIntegrationTest {
         //Recipe recipe = getRecipe();
         recipe = new Recipe(UUID.randomUUID().toString(), "Paneer Tikka",
                 "Vegetarian",
+                null,
                 "Marinate the paneer and keep it in the tandoor",
                 2,
-                Lists.newArrayList(new Ingredient("Paneer"),
+                Sets.newLinkedHashSet(new Ingredient("Paneer"),
                         new Ingredient("Curd"),
                         new Ingredient("Salt"),
-                        new Ingredient("Pepper")));
+                        new Ingredient("Pepper")),
+                null);
         ResponseEntity<Recipe> recipeResponse = restTemplate.postForEntity(HOST_NAME + port + "/recipe", recipe, Recipe.class);
         assertThat(Objects.requireNonNull(recipeResponse.getBody()).getRecipeId()).isNotNull();
         assertThat(recipeResponse.getBody().getIngredients()).hasSize(4);
         assertThat(recipeResponse.getBody().getRecipeName()).isEqualTo("Paneer Tikka");
     }
 
+    @Test
+    @DisplayName("add and update Recipe: GIVEN an ingredient without a name THEN returns bad request")
+    void addRecipeWithNamelessIngredient() {
+        Recipe nameless = getRecipe().toBuilder().recipeName("Nameless Stew")
+                .ingredients(Sets.newLinkedHashSet(new Ingredient((String) null), new Ingredient("Salt"))).build();
+        ResponseEntity<ErrorDetails> added = restTemplate.postForEntity(HOST_NAME + port + "/recipe", nameless, ErrorDetails.class);
+        assertThat(added.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(Objects.requireNonNull(added.getBody()).getMessage()).isEqualTo("Please specify the name of the ingredient");
+
+        Recipe saved = Objects.requireNonNull(restTemplate.exchange(HOST_NAME + port + "/recipes/category/Desert", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Recipe>>() {
+                }).getBody()).get(0);
+        ResponseEntity<ErrorDetails> updated = restTemplate.exchange(HOST_NAME + port + "/recipe", HttpMethod.PUT,
+                new HttpEntity<>(saved.toBuilder().ingredients(Sets.newLinkedHashSet(new Ingredient(" "))).build()), ErrorDetails.class);
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     @DisplayName("getAllRecipes : Returns all the available recipes")
     void getAllRecipes() {
@@ -71,6 +93,20 @@ class RecipeControllerIntegrationTest {
         assertThat(recipes.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    @DisplayName("exportRecipes : Streams all the available recipes as newline delimited json")
+    void exportRecipes() throws Exception {
+        ResponseEntity<String> export = restTemplate.getForEntity(HOST_NAME + port + "/recipes/export", String.class);
+        assertThat(export.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(export.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = Objects.requireNonNull(export.getBody()).lines().toList();
+        assertThat(lines).isNotEmpty();
+        for (String line : lines) {
+            assertThat(objectMapper.readValue(line, Recipe.class).getIngredients()).isNotEmpty();
+        }
+    }
+
     @Test
     @DisplayName("getRecipesByCategory : GIVEN a category THEN returns all the available recipes under that category")
     void getRecipesByCategory() {
@@ -112,6 +148,26 @@ class RecipeControllerIntegrationTest {
         assertThat(recipes.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    @DisplayName("removeRecipesByCriteria : GIVEN a filter criteria THEN removes every matching recipe and returns the count")
+    void removeRecipesByCriteria() {
+        for (String recipeName : List.of("Pruned Stew", "Pruned Soup", "Pruned Pie")) {
+            restTemplate.postForEntity(HOST_NAME + port + "/recipe",
+                    getRecipe().toBuilder().recipeName(recipeName).category("Pruned").build(), Recipe.class);
+        }
+        RecipesFilterRequest recipesFilterRequest = new RecipesFilterRequest();
+        recipesFilterRequest.setCategory("pruned");
+        ResponseEntity<BulkDeleteResult> result = restTemplate.exchange(HOST_NAME + port + "/recipes", HttpMethod.DELETE,
+                new HttpEntity<>(recipesFilterRequest), BulkDeleteResult.class);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(result.getBody()).getDeleted()).isEqualTo(3);
+        assertThat(restTemplate.postForEntity(HOST_NAME + port + "/search/recipes", recipesFilterRequest, List.class).getBody()).isEmpty();
+
+        ResponseEntity<ErrorDetails> unfiltered = restTemplate.exchange(HOST_NAME + port + "/recipes", HttpMethod.DELETE,
+                new HttpEntity<>(new RecipesFilterRequest()), ErrorDetails.class);
+        assertThat(unfiltered.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     @DisplayName("getRecipeByCategoryForExceptionTest: GIVEN a category and no recipes found under that category THEN returns an exception with message")
     void getRecipeByCategoryForExceptionTest() {
@@ -136,4 +192,101 @@ class RecipeControllerIntegrationTest {
         ResponseEntity<List> recipes = restTemplate.postForEntity(HOST_NAME + port + "/search/recipes", recipesFilterRequest, List.class);
         assertThat(recipes.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
+
+    @Test
+    @DisplayName("searchRecipesByCriteria : GIVEN excluded ingredients THEN returns the recipes without them")
+    void searchRecipesWithoutIngredients() {
+        RecipesFilterRequest withoutBanana = new RecipesFilterRequest();
+        withoutBanana.setCategory("Desert");
+        withoutBanana.setIngredients(Map.of("banana", false));
+        ResponseEntity<List<Recipe>> recipes = restTemplate.exchange(HOST_NAME + port + "/search/recipes", HttpMethod.POST,
+                new HttpEntity<>(withoutBanana), new ParameterizedTypeReference<List<Recipe>>() {
+                });
+        assertThat(recipes.getBody()).isEmpty();
+
+        RecipesFilterRequest withoutSaffron = new RecipesFilterRequest();
+        withoutSaffron.setCategory("Desert");
+        withoutSaffron.setIngredients(Map.of("saffron", false));
+        recipes = restTemplate.exchange(HOST_NAME + port + "/search/recipes", HttpMethod.POST,
+                new HttpEntity<>(withoutSaffron), new ParameterizedTypeReference<List<Recipe>>() {
+                });
+        assertThat(recipes.getBody()).extracting(Recipe::getRecipeName).containsExactly("Banana Bread");
+    }
+
+    @Test
+    @DisplayName("searchRecipesByCriteria : GIVEN a page size THEN pages through the matches by servings with a cursor and the total")
+    void searchRecipesByPage() {
+        for (int servings = 1; servings <= 3; servings++) {
+            restTemplate.postForEntity(HOST_NAME + port + "/recipe",
+                    getRecipe().toBuilder().recipeName("Paged Stew " + servings).category("Paged").servings(4 - servings).build(), Recipe.class);
+        }
+        RecipesFilterRequest recipesFilterRequest = new RecipesFilterRequest();
+        recipesFilterRequest.setCategory("Paged");
+        ResponseEntity<Recipe[]> firstPage = restTemplate.postForEntity(HOST_NAME + port + "/search/recipes?sort=servings&size=2",
+                recipesFilterRequest, Recipe[].class);
+        assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(firstPage.getBody()).extracting(Recipe::getServings).containsExactly(1, 2);
+        assertThat(firstPage.getHeaders().getFirst(RecipeController.TOTAL_COUNT_HEADER)).isEqualTo("3");
+        String cursor = firstPage.getHeaders().getFirst(RecipeController.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotNull();
+
+        ResponseEntity<Recipe[]> lastPage = restTemplate.postForEntity(HOST_NAME + port + "/search/recipes?sort=servings&size=2&total=false&cursor=" + cursor,
+                recipesFilterRequest, Recipe[].class);
+        assertThat(lastPage.getBody()).extracting(Recipe::getRecipeName).containsExactly("Paged Stew 1");
+        assertThat(lastPage.getHeaders().containsKey(RecipeController.NEXT_CURSOR_HEADER)).isFalse();
+        assertThat(lastPage.getHeaders().containsKey(RecipeController.TOTAL_COUNT_HEADER)).isFalse();
+
+        restTemplate.exchange(HOST_NAME + port + "/recipes", HttpMethod.DELETE, new HttpEntity<>(recipesFilterRequest), String.class);
+    }
+
+    @Test
+    @DisplayName("searchRecipesWithFacets : GIVEN a filter criteria THEN returns the matching recipes and their facet counts")
+    void searchRecipesWithFacets() {
+        RecipesFilterRequest recipesFilterRequest = new RecipesFilterRequest();
+        recipesFilterRequest.setCategory("Desert");
+        ResponseEntity<FacetedSearchResult> result = restTemplate.postForEntity(HOST_NAME + port + "/search/recipes/faceted", recipesFilterRequest, FacetedSearchResult.class);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(result.getBody()).getRecipes()).hasSize(1);
+        assertThat(result.getBody().getFacets().getCategories()).containsEntry("desert", 1L);
+        assertThat(result.getBody().getFacets().getIngredients()).containsKeys("flour", "banana", "sugar");
+        assertThat(result.getHeaders().containsKey(RecipeController.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("searchRecipesWithFacets : GIVEN a page size THEN returns one page of recipes and the facet counts of all of them")
+    void searchRecipesWithFacetsPaged() {
+        ResponseEntity<FacetedSearchResult> result = restTemplate.postForEntity(HOST_NAME + port + "/search/recipes/faceted?size=1",
+                new RecipesFilterRequest(), FacetedSearchResult.class);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(result.getBody()).getRecipes()).hasSize(1);
+        long matching = result.getBody().getFacets().getCategories().values().stream().mapToLong(Long::longValue).sum();
+        assertThat(result.getHeaders().containsKey(RecipeController.NEXT_CURSOR_HEADER)).isEqualTo(matching > 1);
+    }
+
+    @Test
+    @DisplayName("multiSearchRecipes : GIVEN several filter criteria THEN returns the recipes of each search in order")
+    void multiSearchRecipes() {
+        RecipesFilterRequest deserts = new RecipesFilterRequest();
+        deserts.setCategory("Desert");
+        RecipesFilterRequest fishes = new RecipesFilterRequest();
+        fishes.setCategory("Fish");
+        ResponseEntity<List<List<Recipe>>> results = restTemplate.exchange(HOST_NAME + port + "/search/recipes/multi", HttpMethod.POST,
+                new HttpEntity<>(List.of(deserts, fishes, deserts)), new ParameterizedTypeReference<List<List<Recipe>>>() {
+                });
+        assertThat(results.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(results.getBody())).hasSize(3);
+        assertThat(results.getBody().get(0)).extracting(Recipe::getRecipeName).containsExactly("Banana Bread");
+        assertThat(results.getBody().get(1)).isEmpty();
+        assertThat(results.getBody().get(2)).isEqualTo(results.getBody().get(0));
+    }
+
+    @Test
+    @DisplayName("multiSearchRecipes : GIVEN a page size THEN returns at most that many recipes for each search")
+    void multiSearchRecipesPaged() {
+        ResponseEntity<List<List<Recipe>>> results = restTemplate.exchange(HOST_NAME + port + "/search/recipes/multi?size=1", HttpMethod.POST,
+                new HttpEntity<>(List.of(new RecipesFilterRequest(), new RecipesFilterRequest())), new ParameterizedTypeReference<List<List<Recipe>>>() {
+                });
+        assertThat(results.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(results.getBody())).hasSize(2).allSatisfy(recipes -> assertThat(recipes).hasSize(1));
+    }
 }
@@ -0,0 +1,105 @@
+package com.nl.recipe.controller;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipesFilterRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.util.Sets;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type RecipeControllerQueryCountTest Asserts the number of SQL statements each read endpoint issues, so an endpoint
+ * that starts loading ingredients one recipe at a time is caught.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:recipe-query-count-test",
+                "spring.jpa.properties.hibernate.generate_statistics=true"})
+class RecipeControllerQueryCountTest {
+    private static final String HOST_NAME = "http://localhost:";
+    private static final String CATEGORY = "QueryCount";
+    private static final int RECIPES = 5;
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < RECIPES; i++) {
+            Recipe recipe = Recipe.builder()
+                    .recipeName("Query Count " + i)
+                    .category(CATEGORY)
+                    .instructions("Bake in the oven")
+                    .servings(i + 1)
+                    .ingredients(Sets.newLinkedHashSet(new Ingredient("Flour"), new Ingredient("Egg")))
+                    .build();
+            restTemplate.postForEntity(HOST_NAME + port + "/recipe", recipe, Recipe.class);
+        }
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : loads a page of recipes and their ingredients in two statements")
+    void getAllRecipes() {
+        assertStatementCount(2, () -> restTemplate.getForEntity(HOST_NAME + port + "/recipes?size=" + RECIPES, String.class));
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN fields without the ingredients THEN reads the page and only the requested columns in two statements")
+    void getAllRecipesWithFields() {
+        assertStatementCount(2, () -> restTemplate.getForEntity(HOST_NAME + port + "/recipes?fields=recipeName,category&size=" + RECIPES, String.class));
+    }
+
+    @Test
+    @DisplayName("getRecipesByCategory : loads the recipes and their ingredients in one statement")
+    void getRecipesByCategory() {
+        assertStatementCount(1, () -> restTemplate.getForEntity(HOST_NAME + port + "/recipes/category/" + CATEGORY, String.class));
+    }
+
+    @Test
+    @DisplayName("searchRecipesByCriteria : reads the ids of a page, then the recipes and their ingredients in one statement")
+    void searchRecipesByCriteria() {
+        RecipesFilterRequest recipesFilterRequest = new RecipesFilterRequest();
+        recipesFilterRequest.setCategory(CATEGORY);
+        recipesFilterRequest.setIngredients(Map.of("flour", true));
+        assertStatementCount(2, () -> restTemplate.postForEntity(HOST_NAME + port + "/search/recipes?total=false", recipesFilterRequest, String.class));
+    }
+
+    @Test
+    @DisplayName("searchRecipesByCriteria : counts the matching recipes in one more statement")
+    void searchRecipesByCriteriaWithTotal() {
+        RecipesFilterRequest recipesFilterRequest = new RecipesFilterRequest();
+        recipesFilterRequest.setCategory(CATEGORY);
+        recipesFilterRequest.setServings(2);
+        assertStatementCount(3, () -> restTemplate.postForEntity(HOST_NAME + port + "/search/recipes", recipesFilterRequest, String.class));
+    }
+
+    @Test
+    @DisplayName("exportRecipes : loads the ingredients once per chunk of recipes")
+    void exportRecipes() {
+        assertStatementCount(2, () -> restTemplate.getForEntity(HOST_NAME + port + "/recipes/export", String.class));
+    }
+
+    private void assertStatementCount(long expected, Supplier<ResponseEntity<String>> request) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ResponseEntity<String> response = request.get();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+    }
+}
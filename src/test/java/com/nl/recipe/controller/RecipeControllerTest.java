@@ -1,15 +1,20 @@
 package com.nl.recipe.controller;
 
+import com.nl.recipe.cache.CatalogVersion;
 import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipePage;
 import com.nl.recipe.model.RecipesFilterRequest;
+import com.nl.recipe.service.RecipeImportService;
 import com.nl.recipe.service.RecipeService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.*;
 
@@ -18,6 +23,7 @@ import static com.nl.recipe.utils.RecipeFactory.getSavedRecipe;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +33,12 @@ public class RecipeControllerTest {
     RecipeController recipesController;
     @Mock
     RecipeService recipesService;
+    @Mock
+    RecipeImportService recipeImportService;
+    @Spy
+    CatalogVersion catalogVersion = new CatalogVersion();
+    @Mock
+    WebRequest webRequest;
 
     @Test
     @DisplayName("addRecipe : GIVEN a recipe THEN saves the recipe in database")
@@ -42,10 +54,20 @@ public class RecipeControllerTest {
     @DisplayName("getAllRecipes : Fetches all the available recipes in the database")
     public void getAllRecipes() {
         List<Recipe> recipeList = Collections.singletonList(getSavedRecipe());
-        when(recipesService.getAllRecipes()).thenReturn(recipeList);
-        ResponseEntity<List<Recipe>> recipeResponseEntity = recipesController.getAllRecipes();
+        when(recipesService.getAllRecipes(null, 50)).thenReturn(new RecipePage<>(recipeList, "next"));
+        ResponseEntity<List<?>> recipeResponseEntity = recipesController.getAllRecipes(null, 50, null, webRequest);
         assertThat(recipeResponseEntity.getBody()).hasSize(1);
-        assertThat(recipeResponseEntity.getBody().get(0).getCategory()).isEqualTo("Desert");
+        assertThat(((Recipe) recipeResponseEntity.getBody().get(0)).getCategory()).isEqualTo("Desert");
+        assertThat(recipeResponseEntity.getHeaders().getFirst(RecipeController.NEXT_CURSOR_HEADER)).isEqualTo("next");
+        assertThat(recipeResponseEntity.getHeaders().getETag()).isEqualTo("W/\"" + catalogVersion.getETag() + "\"");
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN the ETag of the current catalog THEN answers not modified without reading the recipes")
+    public void getAllRecipesNotModified() {
+        when(webRequest.checkNotModified("W/\"" + catalogVersion.getETag() + "\"", catalogVersion.getLastModified())).thenReturn(true);
+        assertThat(recipesController.getAllRecipes(null, 50, null, webRequest)).isNull();
+        verifyNoInteractions(recipesService);
     }
 
     @Test
@@ -53,7 +75,7 @@ public class RecipeControllerTest {
     public void getRecipesByCategory() {
         List<Recipe> recipeList = Collections.singletonList(getSavedRecipe());
         when(recipesService.getRecipesByCategory(anyString())).thenReturn(recipeList);
-        ResponseEntity<List<Recipe>> recipeResponseEntity = recipesController.getRecipesByCategory("Desert");
+        ResponseEntity<List<Recipe>> recipeResponseEntity = recipesController.getRecipesByCategory("Desert", webRequest);
         assertThat(recipeResponseEntity.getBody()).hasSize(1);
         assertThat(recipeResponseEntity.getBody().get(0).getRecipeName()).isEqualTo("Banana Bread");
     }
@@ -68,9 +90,11 @@ public class RecipeControllerTest {
         booleanMap.put("Sugar", true);
         recipesFilterRequest.setIngredients(booleanMap);
         List<Recipe> recipeList = Collections.singletonList(getSavedRecipe());
-        when(recipesService.searchRecipesByCriteria(recipesFilterRequest)).thenReturn(recipeList);
-        ResponseEntity<List<Recipe>> recipeResponseEntity = recipesController.searchRecipesByCriteria(recipesFilterRequest);
+        when(recipesService.searchRecipes(recipesFilterRequest, null, null, 50, true)).thenReturn(new RecipePage<>(recipeList, "next", 7L));
+        ResponseEntity<List<?>> recipeResponseEntity = recipesController.searchRecipesByCriteria(recipesFilterRequest, null, null, 50, true, null);
         assertThat(recipeResponseEntity.getBody()).hasSize(1);
-        assertThat(recipeResponseEntity.getBody().get(0).getRecipeName()).isEqualTo("Banana Bread");
+        assertThat(((Recipe) recipeResponseEntity.getBody().get(0)).getRecipeName()).isEqualTo("Banana Bread");
+        assertThat(recipeResponseEntity.getHeaders().getFirst(RecipeController.NEXT_CURSOR_HEADER)).isEqualTo("next");
+        assertThat(recipeResponseEntity.getHeaders().getFirst(RecipeController.TOTAL_COUNT_HEADER)).isEqualTo("7");
     }
 }
@@ -0,0 +1,111 @@
+package com.nl.recipe.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nl.recipe.model.BulkImportResult;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type RecipeImportIntegrationTest Tests the bulk import end to end, in json and newline delimited json.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:recipe-import-test", "recipe.import.batch-size=7"})
+class RecipeImportIntegrationTest {
+    private static final String HOST_NAME = "http://localhost:";
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("importRecipes : GIVEN valid, invalid, duplicate and existing recipes THEN imports the valid ones and reports the others")
+    void importRecipes() {
+        String prefix = UUID.randomUUID().toString();
+        restTemplate.postForEntity(HOST_NAME + port + "/recipe", recipe(prefix + " existing"), Recipe.class);
+        List<Recipe> recipes = IntStream.range(0, 20).mapToObj(i -> recipe(prefix + " " + i)).collect(Collectors.toList());
+        recipes.add(recipe(prefix + " 3"));
+        recipes.add(recipe(prefix + " existing"));
+        recipes.add(recipe(prefix + " invalid").toBuilder().category(null).build());
+
+        ResponseEntity<BulkImportResult> response = restTemplate.postForEntity(HOST_NAME + port + "/recipes/bulk", recipes, BulkImportResult.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BulkImportResult result = Objects.requireNonNull(response.getBody());
+        assertThat(result.getImported()).isEqualTo(20);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getItems()).hasSize(23);
+        assertThat(result.getItems().get(0).getRecipeId()).isNotNull();
+        assertThat(result.getItems().get(20).getMessage()).isEqualTo("Duplicate recipe name in request " + prefix + " 3");
+        assertThat(result.getItems().get(21).getMessage()).isEqualTo("Recipe already exist with " + prefix + " existing");
+        assertThat(result.getItems().get(22).getMessage()).isEqualTo("Please choose a category of the Recipe");
+        assertThat(restTemplate.getForEntity(HOST_NAME + port + "/recipes/category/" + prefix, List.class).getBody()).hasSize(21);
+    }
+
+    @Test
+    @DisplayName("importRecipes : GIVEN a recipe with a blank ingredient name THEN reports that recipe and imports the others")
+    void importRecipesWithBlankIngredient() {
+        String prefix = UUID.randomUUID().toString();
+        List<Recipe> recipes = List.of(recipe(prefix + " 0"),
+                recipe(prefix + " blank").toBuilder().ingredients(Sets.newLinkedHashSet(new Ingredient(" "), new Ingredient("Salt"))).build(),
+                recipe(prefix + " nameless").toBuilder().ingredients(Sets.newLinkedHashSet(new Ingredient((String) null))).build(),
+                recipe(prefix + " 1"));
+
+        ResponseEntity<BulkImportResult> response = restTemplate.postForEntity(HOST_NAME + port + "/recipes/bulk", recipes, BulkImportResult.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BulkImportResult result = Objects.requireNonNull(response.getBody());
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getItems().get(1).getMessage()).isEqualTo("Please specify the name of the ingredient");
+        assertThat(result.getItems().get(2).getMessage()).isEqualTo("Please specify the name of the ingredient");
+    }
+
+    @Test
+    @DisplayName("importRecipesFromNdjson : GIVEN one recipe per line THEN imports every recipe")
+    void importRecipesFromNdjson() throws Exception {
+        String prefix = UUID.randomUUID().toString();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            body.append(objectMapper.writeValueAsString(recipe(prefix + " " + i))).append('\n');
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        ResponseEntity<BulkImportResult> response = restTemplate.postForEntity(HOST_NAME + port + "/recipes/bulk",
+                new HttpEntity<>(body.toString(), headers), BulkImportResult.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(response.getBody()).getImported()).isEqualTo(10);
+        assertThat(response.getBody().getItems()).allMatch(item -> item.getStatus() == BulkImportResult.Status.CREATED);
+    }
+
+    private static Recipe recipe(String recipeName) {
+        return Recipe.builder()
+                .recipeName(recipeName)
+                .category(recipeName.substring(0, 36))
+                .instructions("Mix and bake")
+                .servings(4)
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Flour"), new Ingredient("Butter")))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeFacets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class FacetCounterTest {
+
+    private FacetCounter facetCounter;
+
+    private Recipe bananaBread;
+    private Recipe pancakes;
+    private Recipe omelette;
+
+    @BeforeEach
+    void setUp() {
+        facetCounter = new FacetCounter();
+        bananaBread = recipe("Desert", 4, "Flour", "Banana", "Sugar");
+        pancakes = recipe("desert", 2, "Flour", "Egg", "Milk");
+        omelette = recipe("Breakfast", 2, "Egg", " salt ");
+        facetCounter.index(bananaBread);
+        facetCounter.index(pancakes);
+        facetCounter.index(omelette);
+    }
+
+    @Test
+    @DisplayName("facets : GIVEN the catalog THEN returns the counts ordered by descending count")
+    void catalogFacets() {
+        RecipeFacets facets = facetCounter.facets(2);
+        assertThat(facets.getCategories()).containsExactly(entry("desert", 2L), entry("breakfast", 1L));
+        assertThat(facets.getServings()).containsExactly(entry(2, 2L), entry(4, 1L));
+        assertThat(facets.getIngredients()).containsExactly(entry("egg", 2L), entry("flour", 2L));
+    }
+
+    @Test
+    @DisplayName("facets : GIVEN recipe ids THEN returns the counts of those recipes only")
+    void resultFacets() {
+        RecipeFacets facets = facetCounter.facets(List.of(pancakes.getRecipeId(), omelette.getRecipeId(), "unknown"), 10);
+        assertThat(facets.getCategories()).containsExactly(entry("breakfast", 1L), entry("desert", 1L));
+        assertThat(facets.getServings()).containsExactly(entry(2, 2L));
+        assertThat(facets.getIngredients()).containsExactly(entry("egg", 2L), entry("flour", 1L), entry("milk", 1L), entry("salt", 1L));
+    }
+
+    @Test
+    @DisplayName("index : GIVEN updated and removed recipes THEN the counters follow the changes")
+    void indexChanges() {
+        facetCounter.index(pancakes.toBuilder().category("Breakfast").servings(4).build());
+        facetCounter.remove(bananaBread.getRecipeId());
+        facetCounter.remove("unknown");
+
+        RecipeFacets facets = facetCounter.facets(10);
+        assertThat(facets.getCategories()).containsExactly(entry("breakfast", 2L));
+        assertThat(facets.getServings()).containsExactly(entry(2, 1L), entry(4, 1L));
+        assertThat(facets.getIngredients()).containsExactly(entry("egg", 2L), entry("flour", 1L), entry("milk", 1L), entry("salt", 1L));
+
+        facetCounter.clear();
+        assertThat(facetCounter.facets(10).getCategories()).isEmpty();
+    }
+
+    private static Recipe recipe(String category, int servings, String... ingredients) {
+        return Recipe.builder()
+                .recipeId(UUID.randomUUID().toString())
+                .category(category)
+                .servings(servings)
+                .ingredients(Arrays.stream(ingredients).map(Ingredient::new).collect(Collectors.toCollection(LinkedHashSet::new)))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.model.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FullTextIndexTest {
+
+    private FullTextIndex fullTextIndex;
+
+    private Recipe bananaBread;
+    private Recipe pancakes;
+    private Recipe omelette;
+
+    @BeforeEach
+    void setUp() {
+        fullTextIndex = new FullTextIndex();
+        bananaBread = recipe("Banana Bread", "Mash the bananas, mix with the flour and bake it in the oven");
+        pancakes = recipe("Pancakes", "Whisk the eggs with the milk and fry the batter in a pan");
+        omelette = recipe("Baked omelette", "Whisk the eggs, pour into a dish and put it in the oven");
+        fullTextIndex.index(bananaBread);
+        fullTextIndex.index(pancakes);
+        fullTextIndex.index(omelette);
+    }
+
+    @Test
+    @DisplayName("search : GIVEN inflected words THEN matches the recipes containing any form of them")
+    void searchStemmedTerms() {
+        assertThat(fullTextIndex.search("baking")).containsExactlyInAnyOrder(bananaBread.getRecipeId(), omelette.getRecipeId());
+        assertThat(fullTextIndex.search("Whisked egg")).containsExactlyInAnyOrder(pancakes.getRecipeId(), omelette.getRecipeId());
+        assertThat(fullTextIndex.search("banana")).containsExactly(bananaBread.getRecipeId());
+    }
+
+    @Test
+    @DisplayName("search : GIVEN several terms THEN returns only the recipes containing all of them")
+    void searchAllTerms() {
+        assertThat(fullTextIndex.search("oven eggs")).containsExactly(omelette.getRecipeId());
+        assertThat(fullTextIndex.search("oven saffron")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search : GIVEN only stopwords THEN returns no recipes")
+    void searchStopwords() {
+        assertThat(fullTextIndex.search("the and in")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search : GIVEN a term in a recipe name THEN ranks that recipe first")
+    void searchRanksNameHigher() {
+        assertThat(fullTextIndex.search("baked")).containsExactly(omelette.getRecipeId(), bananaBread.getRecipeId());
+    }
+
+    @Test
+    @DisplayName("index : GIVEN updated and removed recipes THEN the index follows the changes")
+    void indexChanges() {
+        pancakes.setInstructions("Bake the batter in the oven");
+        fullTextIndex.index(pancakes);
+        assertThat(fullTextIndex.search("fry")).isEmpty();
+        assertThat(fullTextIndex.search("oven")).hasSize(3);
+
+        fullTextIndex.remove(bananaBread.getRecipeId());
+        assertThat(fullTextIndex.search("oven")).containsExactlyInAnyOrder(pancakes.getRecipeId(), omelette.getRecipeId());
+    }
+
+    private static Recipe recipe(String recipeName, String instructions) {
+        return Recipe.builder()
+                .recipeId(UUID.randomUUID().toString())
+                .recipeName(recipeName)
+                .instructions(instructions)
+                .build();
+    }
+}
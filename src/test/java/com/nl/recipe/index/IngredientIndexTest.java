@@ -0,0 +1,108 @@
+package com.nl.recipe.index;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeIdFilter;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientIndexTest {
+
+    private IngredientIndex ingredientIndex;
+
+    private Recipe bananaBread;
+    private Recipe pancakes;
+    private Recipe omelette;
+    private final Set<String> indexed = new LinkedHashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        ingredientIndex = new IngredientIndex();
+        bananaBread = recipe("Flour", "Banana", "Sugar");
+        pancakes = recipe("Flour", "Egg", "Milk");
+        omelette = recipe("Egg", " salt ");
+        index(bananaBread);
+        index(pancakes);
+        index(omelette);
+    }
+
+    @Test
+    @DisplayName("resolve : GIVEN included ingredients THEN matches the recipes containing all of them")
+    void resolveIncludedIngredients() {
+        assertThat(matching(Map.of("flour", true))).containsExactlyInAnyOrder(bananaBread.getRecipeId(), pancakes.getRecipeId());
+        assertThat(matching(Map.of("FLOUR", true, "egg", true))).containsExactly(pancakes.getRecipeId());
+        assertThat(matching(Map.of("Salt", true))).containsExactly(omelette.getRecipeId());
+        assertThat(matching(Map.of("saffron", true))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("resolve : GIVEN excluded ingredients THEN matches the recipes containing none of them")
+    void resolveExcludedIngredients() {
+        assertThat(matching(Map.of("egg", false))).containsExactly(bananaBread.getRecipeId());
+        Map<String, Boolean> ingredients = new LinkedHashMap<>();
+        ingredients.put("flour", true);
+        ingredients.put("milk", false);
+        assertThat(matching(ingredients)).containsExactly(bananaBread.getRecipeId());
+        assertThat(matching(Map.of("saffron", false))).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("resolve : GIVEN a filter matching most recipes THEN returns the ids it excludes instead")
+    void resolveShorterIdList() {
+        assertThat(ingredientIndex.resolve(Map.of("egg", false))).isEqualTo(RecipeIdFilter.including(Set.of(bananaBread.getRecipeId())));
+        RecipeIdFilter withoutMilk = ingredientIndex.resolve(Map.of("milk", false));
+        assertThat(withoutMilk).isEqualTo(RecipeIdFilter.excluding(Set.of(pancakes.getRecipeId())));
+        assertThat(withoutMilk.matches(omelette.getRecipeId())).isTrue();
+        assertThat(withoutMilk.matches(pancakes.getRecipeId())).isFalse();
+        assertThat(ingredientIndex.resolve(Map.of("saffron", false))).isEqualTo(RecipeIdFilter.excluding(Set.of()));
+        assertThat(ingredientIndex.resolve(Map.of("saffron", true)).matchesNone()).isTrue();
+    }
+
+    @Test
+    @DisplayName("index : GIVEN updated and removed recipes THEN the index follows the changes")
+    void indexChanges() {
+        pancakes.setIngredients(Sets.newLinkedHashSet(new Ingredient("Flour"), new Ingredient("Banana")));
+        index(pancakes);
+        assertThat(matching(Map.of("egg", true))).containsExactly(omelette.getRecipeId());
+        assertThat(matching(Map.of("banana", true))).containsExactlyInAnyOrder(bananaBread.getRecipeId(), pancakes.getRecipeId());
+
+        ingredientIndex.remove(bananaBread.getRecipeId());
+        indexed.remove(bananaBread.getRecipeId());
+        assertThat(matching(Map.of("banana", true))).containsExactly(pancakes.getRecipeId());
+        assertThat(ingredientIndex.resolve(Map.of("saffron", false))).isEqualTo(RecipeIdFilter.excluding(Set.of()));
+        assertThat(ingredientIndex.resolve(Map.of("egg", false))).isEqualTo(RecipeIdFilter.including(Set.of(pancakes.getRecipeId())));
+
+        Recipe porridge = recipe("Oats", "Milk");
+        index(porridge);
+        assertThat(matching(Map.of("milk", true))).containsExactly(porridge.getRecipeId());
+    }
+
+    private void index(Recipe recipe) {
+        ingredientIndex.index(recipe);
+        indexed.add(recipe.getRecipeId());
+    }
+
+    private Set<String> matching(Map<String, Boolean> ingredients) {
+        RecipeIdFilter filter = ingredientIndex.resolve(ingredients);
+        return indexed.stream().filter(filter::matches).collect(Collectors.toSet());
+    }
+
+    private static Recipe recipe(String... ingredients) {
+        return Recipe.builder()
+                .recipeId(UUID.randomUUID().toString())
+                .ingredients(Arrays.stream(ingredients).map(Ingredient::new).collect(Collectors.toCollection(LinkedHashSet::new)))
+                .build();
+    }
+}
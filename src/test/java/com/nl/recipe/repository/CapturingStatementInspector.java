@@ -0,0 +1,29 @@
+package com.nl.recipe.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type CapturingStatementInspector records every distinct sql statement hibernate prepares, registered through
+ * hibernate.session_factory.statement_inspector by the tests asserting on the generated sql.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final Set<String> STATEMENTS = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static Set<String> statements() {
+        return Set.copyOf(STATEMENTS);
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+}
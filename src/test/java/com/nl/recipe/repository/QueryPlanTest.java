@@ -0,0 +1,145 @@
+package com.nl.recipe.repository;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipesFilterRequest;
+import com.nl.recipe.service.RecipeImportService;
+import com.nl.recipe.service.RecipeService;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type QueryPlanTest Runs every repository operation, then asks H2 to EXPLAIN each select hibernate generated and
+ * fails when one scans a whole table, apart from the allowed full scans listed below.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:recipe-query-plan-test",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.nl.recipe.repository.CapturingStatementInspector"})
+class QueryPlanTest {
+
+    /**
+     * Queries meant to read the whole table, matched against the generated sql.
+     */
+    private static final List<Pattern> FULL_SCANS_ALLOWED = List.of(
+            // streamAll, the export reads every recipe
+            Pattern.compile("from recipes r1_0$"),
+            // instructions are matched with a free LIKE pattern, only the other filters can narrow it down
+            Pattern.compile("where cast\\(lower\\(r1_0\\.instructions\\) as varchar\\) like "),
+            // an ingredient filter matching most of the catalog only excludes the other recipes, reading the rest is the plan
+            Pattern.compile("where r1_0\\.recipe_id not in \\("));
+
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private RecipeImportService recipeImportService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("explain : GIVEN every repository operation THEN no generated query scans a whole table")
+    void noFullTableScans() throws SQLException {
+        runEveryRepositoryOperation();
+
+        Map<String, String> plans = new TreeMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : CapturingStatementInspector.statements()) {
+                if (sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                    plans.put(sql, explain(connection, sql));
+                }
+            }
+        }
+        assertThat(plans).isNotEmpty();
+        List<String> fullScans = plans.entrySet().stream()
+                .filter(plan -> plan.getValue().contains("tableScan"))
+                .filter(plan -> FULL_SCANS_ALLOWED.stream().noneMatch(allowed -> allowed.matcher(plan.getKey().trim()).find()))
+                .map(plan -> plan.getKey() + System.lineSeparator() + plan.getValue())
+                .toList();
+        assertThat(fullScans).as("queries scanning a whole table").isEmpty();
+    }
+
+    private void runEveryRepositoryOperation() {
+        Recipe soup = recipeService.addRecipe(recipe("Plan Soup", "Plan", 2, "Water", "Salt"));
+        recipeImportService.importRecipes(List.of(recipe("Plan Stew", "Plan", 4, "Water", "Beef"),
+                recipe("Plan Salad", "Greens", 1, "Lettuce")));
+        recipeService.updateRecipeById(soup.toBuilder().instructions("Simmer").ingredients(Sets.newLinkedHashSet(new Ingredient("Pepper"))).build());
+
+        recipeService.getRecipe(soup.getRecipeId());
+        recipeService.getRecipesByCategory("PLAN");
+        String cursor = recipeService.getAllRecipes(null, 1).getNextCursor();
+        recipeService.getAllRecipes(cursor, 1);
+        recipeService.exportRecipes(recipe -> recipe.getIngredients().size());
+
+        RecipesFilterRequest byCategory = new RecipesFilterRequest();
+        byCategory.setCategory("plan");
+        recipeService.searchRecipesByCriteria(byCategory);
+        RecipesFilterRequest byCategoryPattern = new RecipesFilterRequest();
+        byCategoryPattern.setCategory("pl%");
+        recipeService.searchRecipesByCriteria(byCategoryPattern);
+        RecipesFilterRequest byServings = new RecipesFilterRequest();
+        byServings.setServings(4);
+        recipeService.searchRecipesByCriteria(byServings);
+        RecipesFilterRequest byIngredient = new RecipesFilterRequest();
+        byIngredient.setIngredients(Map.of("water", true));
+        recipeService.searchRecipesByCriteria(byIngredient);
+        RecipesFilterRequest byInstructions = new RecipesFilterRequest();
+        byInstructions.setInstructions("%simmer%");
+        recipeService.searchRecipesByCriteria(byInstructions);
+        String servingsCursor = recipeService.searchRecipes(byCategory, "servings", null, 1, true).getNextCursor();
+        recipeService.searchRecipes(byCategory, "servings", servingsCursor, 1, true);
+        String nameCursor = recipeService.searchRecipes(byServings, "name", null, 1, true).getNextCursor();
+        recipeService.searchRecipes(byServings, "name", nameCursor, 1, false);
+        recipeService.searchRecipeSummaries(byCategory, "servings", servingsCursor, 1, false, "recipeName,ingredients");
+        recipeService.getRecipeSummaries(null, 1, "category");
+
+        recipeRepository.findExistingRecipeNames(List.of("Plan Soup", "Plan Pie"));
+        ingredientRepository.findByNormalizedNameIn(List.of("water", "salt"));
+        recipeService.deleteRecipeById(soup.getRecipeId());
+        recipeService.deleteRecipesByCriteria(byServings);
+    }
+
+    /**
+     * Explains the statement with every parameter bound to null, which keeps the shape of the conditions the plan
+     * is chosen from.
+     */
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int parameter = 1; parameter <= statement.getParameterMetaData().getParameterCount(); parameter++) {
+                statement.setObject(parameter, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static Recipe recipe(String recipeName, String category, int servings, String... ingredients) {
+        return Recipe.builder()
+                .recipeName(recipeName)
+                .category(category)
+                .instructions("Boil")
+                .servings(servings)
+                .ingredients(Arrays.stream(ingredients).map(Ingredient::new).collect(Collectors.toCollection(LinkedHashSet::new)))
+                .build();
+    }
+}
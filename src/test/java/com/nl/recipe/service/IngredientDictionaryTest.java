@@ -0,0 +1,87 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.exception.InvalidRecipeException;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientDictionaryTest {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IngredientDictionary ingredientDictionary;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ingredientDictionary = new IngredientDictionary(ingredientRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("resolve : GIVEN known and new names THEN inserts every new name in one transaction")
+    void resolveAddsNewNamesTogether() {
+        when(ingredientRepository.findByNormalizedNameIn(any())).thenReturn(List.of(new Ingredient(1, "Salt")));
+        when(ingredientRepository.saveAllAndFlush(anyList())).thenReturn(List.of(new Ingredient(2, "Basil"), new Ingredient(3, "Thyme")));
+
+        assertThat(ingredientDictionary.resolve(List.of(new Ingredient("Basil"), new Ingredient(" salt"), new Ingredient("Thyme"))))
+                .extracting(Ingredient::getIngredientId).containsExactly(2, 1, 3);
+        verify(ingredientRepository).saveAllAndFlush(List.of(new Ingredient("Basil"), new Ingredient("Thyme")));
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(ingredientRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("resolve : GIVEN a name added concurrently THEN reads it back and adds the others one by one")
+    void resolveAfterConcurrentAdd() {
+        when(ingredientRepository.findByNormalizedNameIn(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new Ingredient(2, "Basil")));
+        when(ingredientRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(ingredientRepository.saveAndFlush(new Ingredient("Thyme"))).thenReturn(new Ingredient(3, "Thyme"));
+
+        assertThat(ingredientDictionary.resolve(List.of(new Ingredient("Basil"), new Ingredient("Thyme"))))
+                .extracting(Ingredient::getIngredientId).containsExactly(2, 3);
+    }
+
+    @Test
+    @DisplayName("resolve : GIVEN a caller transaction already open THEN refuses to take a second connection")
+    void resolveInsideTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(() -> ingredientDictionary.resolve(List.of(new Ingredient("Salt"))))
+                    .isInstanceOf(IllegalStateException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verifyNoInteractions(ingredientRepository);
+    }
+
+    @Test
+    @DisplayName("resolve : GIVEN an ingredient without a name THEN returns an Exception")
+    void resolveBlankName() {
+        assertThatThrownBy(() -> ingredientDictionary.resolve(List.of(new Ingredient("Salt"), new Ingredient(" "))))
+                .isInstanceOf(InvalidRecipeException.class);
+        verifyNoInteractions(ingredientRepository);
+    }
+}
@@ -0,0 +1,90 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.exception.InvalidSearchException;
+import com.nl.recipe.exception.RecipeNotFoundException;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipePage;
+import com.nl.recipe.model.RecipesFilterRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.nl.recipe.utils.RecipeFactory.getSavedRecipe;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultiSearchServiceTest {
+
+    @Mock
+    private RecipeService recipeService;
+
+    private ThreadPoolTaskExecutor searchExecutor;
+
+    private MultiSearchService multiSearchService;
+
+    @BeforeEach
+    void setUp() {
+        searchExecutor = new ThreadPoolTaskExecutor();
+        searchExecutor.setCorePoolSize(2);
+        searchExecutor.initialize();
+        multiSearchService = new MultiSearchService(recipeService, searchExecutor, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("searchRecipes : GIVEN several searches THEN returns the results in the order of the searches, running identical searches once")
+    void searchRecipes() {
+        Recipe desert = getSavedRecipe();
+        Recipe fish = getSavedRecipe().toBuilder().recipeName("Grilled Fish").category("Fish").build();
+        RecipesFilterRequest deserts = search("Desert");
+        RecipesFilterRequest fishes = search("Fish");
+        when(recipeService.searchRecipes(deserts, null, null, 10, false)).thenReturn(new RecipePage<>(List.of(desert), "next"));
+        when(recipeService.searchRecipes(fishes, null, null, 10, false)).thenReturn(new RecipePage<>(List.of(fish), null));
+
+        List<List<Recipe>> results = multiSearchService.searchRecipes(List.of(fishes, deserts, search("Fish")), 10);
+
+        assertThat(results).containsExactly(List.of(fish), List.of(desert), List.of(fish));
+        verify(recipeService, times(1)).searchRecipes(fishes, null, null, 10, false);
+        verify(recipeService, times(1)).searchRecipes(deserts, null, null, 10, false);
+    }
+
+    @Test
+    @DisplayName("searchRecipes : GIVEN more searches than allowed or an empty search THEN returns an Exception without searching")
+    void searchRecipesRejected() {
+        assertThatThrownBy(() -> multiSearchService.searchRecipes(Collections.nCopies(4, search("Desert")), 10))
+                .isInstanceOf(InvalidSearchException.class)
+                .hasMessage("A multi search accepts at most 3 searches");
+        assertThatThrownBy(() -> multiSearchService.searchRecipes(Arrays.asList(search("Desert"), null), 10))
+                .isInstanceOf(InvalidSearchException.class);
+        verifyNoInteractions(recipeService);
+    }
+
+    @Test
+    @DisplayName("searchRecipes : GIVEN a failing search THEN returns the Exception of that search")
+    void searchRecipesFailing() {
+        when(recipeService.searchRecipes(search("Desert"), null, null, 10, false)).thenThrow(new RecipeNotFoundException("No recipes found under :Desert"));
+        assertThatThrownBy(() -> multiSearchService.searchRecipes(List.of(search("Desert")), 10))
+                .isInstanceOf(RecipeNotFoundException.class);
+    }
+
+    private static RecipesFilterRequest search(String category) {
+        RecipesFilterRequest request = new RecipesFilterRequest();
+        request.setCategory(category);
+        return request;
+    }
+}
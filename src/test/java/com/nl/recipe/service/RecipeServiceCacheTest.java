@@ -0,0 +1,170 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.cache.RecipeCacheConfig;
+import com.nl.recipe.cache.RecipeCacheVersions;
+import com.nl.recipe.exception.RecipeNotFoundException;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipesFilterRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.util.Sets;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Type RecipeServiceCacheTest Checks that cached reads skip the database and that writes evict exactly the stale entries.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:recipe-cache-test",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureObservability
+class RecipeServiceCacheTest {
+
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private RecipeCacheVersions recipeCacheVersions;
+
+    private Statistics statistics;
+    private String category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = "Cached " + UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("getRecipe : GIVEN a recipe read twice THEN the second read is served from the cache until it is updated")
+    void getRecipe() {
+        Recipe recipe = recipeService.addRecipe(recipe("Cached Soup " + UUID.randomUUID()));
+        recipeService.getRecipe(recipe.getRecipeId());
+
+        statistics.clear();
+        assertThat(recipeService.getRecipe(recipe.getRecipeId()).getRecipeName()).isEqualTo(recipe.getRecipeName());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        recipeService.updateRecipeById(recipe.toBuilder().instructions("Simmer for an hour").build());
+        assertThat(recipeService.getRecipe(recipe.getRecipeId()).getInstructions()).isEqualTo("Simmer for an hour");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "recipes").tag("result", "hit").functionCounter().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("getRecipe : GIVEN a read racing an update caching the old recipe THEN the updated recipe is served")
+    void getRecipeRacingUpdate() {
+        Recipe recipe = recipeService.addRecipe(recipe("Cached Soup " + UUID.randomUUID()));
+        long version = recipeCacheVersions.recipe(recipe.getRecipeId());
+        recipeService.updateRecipeById(recipe.toBuilder().instructions("Simmer for an hour").build());
+        // a read started before the update commits stores what it loaded under the version it started with
+        Objects.requireNonNull(cacheManager.getCache(RecipeCacheConfig.RECIPES)).put(List.of(version, recipe.getRecipeId()), recipe);
+
+        assertThat(recipeService.getRecipe(recipe.getRecipeId()).getInstructions()).isEqualTo("Simmer for an hour");
+    }
+
+    @Test
+    @DisplayName("getRecipe : GIVEN another recipe updated THEN the cached recipe is still served")
+    void getRecipeOtherUpdated() {
+        Recipe soup = recipeService.addRecipe(recipe("Cached Soup " + UUID.randomUUID()));
+        Recipe stew = recipeService.addRecipe(recipe("Cached Stew " + UUID.randomUUID()));
+        recipeService.getRecipe(soup.getRecipeId());
+        recipeService.updateRecipeById(stew.toBuilder().category(category + " moved").build());
+
+        statistics.clear();
+        assertThat(recipeService.getRecipe(soup.getRecipeId()).getRecipeName()).isEqualTo(soup.getRecipeName());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("getRecipesByCategory : GIVEN a read of the old category racing a move THEN the moved recipe is not served")
+    void getRecipesByCategoryRacingMove() {
+        Recipe soup = recipeService.addRecipe(recipe("Cached Soup " + UUID.randomUUID()));
+        Recipe stew = recipeService.addRecipe(recipe("Cached Stew " + UUID.randomUUID()));
+        long version = recipeCacheVersions.category(category);
+        recipeService.updateRecipeById(stew.toBuilder().category(category + " moved").build());
+        // a read started before the move commits stores the old list under the version it started with
+        Objects.requireNonNull(cacheManager.getCache(RecipeCacheConfig.RECIPES_BY_CATEGORY))
+                .put(List.of(version, category.toLowerCase(Locale.ROOT)), List.of(soup, stew));
+
+        assertThat(recipeService.getRecipesByCategory(category)).extracting(Recipe::getRecipeId).containsExactly(soup.getRecipeId());
+    }
+
+    @Test
+    @DisplayName("getRecipesByCategory : GIVEN recipes added, moved and deleted THEN the category lists follow the changes")
+    void getRecipesByCategory() {
+        Recipe soup = recipeService.addRecipe(recipe("Cached Soup " + UUID.randomUUID()));
+        assertThat(recipeService.getRecipesByCategory(category)).hasSize(1);
+
+        statistics.clear();
+        assertThat(recipeService.getRecipesByCategory(category.toUpperCase())).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        Recipe stew = recipeService.addRecipe(recipe("Cached Stew " + UUID.randomUUID()));
+        assertThat(recipeService.getRecipesByCategory(category)).hasSize(2);
+
+        recipeService.updateRecipeById(stew.toBuilder().category(category + " moved").build());
+        assertThat(recipeService.getRecipesByCategory(category)).extracting(Recipe::getRecipeId).containsExactly(soup.getRecipeId());
+
+        recipeService.deleteRecipeById(soup.getRecipeId());
+        assertThatThrownBy(() -> recipeService.getRecipesByCategory(category)).isInstanceOf(RecipeNotFoundException.class);
+        assertThat(recipeService.getRecipesByCategory(category + " moved")).hasSize(1);
+        assertThat(recipeService.getRecipesByCategory(category + " moved")).extracting(Recipe::getRecipeId).containsExactly(stew.getRecipeId());
+    }
+
+    @Test
+    @DisplayName("searchRecipesByCriteria : GIVEN an equivalent filter THEN reuses the cached ids until a recipe is added")
+    void searchRecipesByCriteria() {
+        Recipe soup = recipeService.addRecipe(recipe("Cached Soup " + UUID.randomUUID()));
+        RecipesFilterRequest request = new RecipesFilterRequest();
+        request.setCategory(category);
+        request.setIngredients(Map.of("Water", true, "salt", true));
+        assertThat(recipeService.searchRecipesByCriteria(request)).extracting(Recipe::getRecipeId).containsExactly(soup.getRecipeId());
+
+        double hits = searchCacheHits();
+        RecipesFilterRequest equivalent = new RecipesFilterRequest();
+        equivalent.setCategory(category.toUpperCase());
+        equivalent.setIngredients(Map.of("SALT", true, " water", true));
+        assertThat(recipeService.searchRecipesByCriteria(equivalent)).extracting(Recipe::getRecipeId).containsExactly(soup.getRecipeId());
+        assertThat(searchCacheHits()).isEqualTo(hits + 1);
+
+        Recipe stew = recipeService.addRecipe(recipe("Cached Stew " + UUID.randomUUID()));
+        assertThat(recipeService.searchRecipesByCriteria(equivalent)).extracting(Recipe::getRecipeId)
+                .containsExactlyInAnyOrder(soup.getRecipeId(), stew.getRecipeId());
+        assertThat(searchCacheHits()).isEqualTo(hits + 1);
+    }
+
+    private double searchCacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", RecipeCacheConfig.SEARCH_RESULTS).tag("result", "hit").functionCounter().count();
+    }
+
+    private Recipe recipe(String recipeName) {
+        return Recipe.builder()
+                .recipeName(recipeName)
+                .category(category)
+                .instructions("Boil")
+                .servings(2)
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Water"), new Ingredient("Salt")))
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.exception.RecipeExistsException;
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.repository.RecipeRepository;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type RecipeServiceConcurrencyTest Fires duplicate creates from many threads at once and checks that each name is
+ * stored exactly once while every other attempt is rejected as an existing recipe.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:recipe-concurrency-test")
+class RecipeServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int NAMES = 20;
+    private static final int ATTEMPTS_PER_NAME = 100;
+
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Test
+    @DisplayName("addRecipe : GIVEN thousands of concurrent duplicate creates THEN one per name succeeds and the rest are rejected")
+    void addRecipeConcurrently() throws Exception {
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int attempt = 0; attempt < ATTEMPTS_PER_NAME; attempt++) {
+                for (int name = 0; name < NAMES; name++) {
+                    String recipeName = "Concurrent Stew " + name;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            recipeService.addRecipe(recipe(recipeName));
+                            added.incrementAndGet();
+                        } catch (RecipeExistsException e) {
+                            rejected.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(added).hasValue(NAMES);
+        assertThat(rejected).hasValue(NAMES * (ATTEMPTS_PER_NAME - 1));
+        assertThat(recipeRepository.count()).isEqualTo(NAMES);
+    }
+
+    private static Recipe recipe(String recipeName) {
+        return Recipe.builder()
+                .recipeName(recipeName)
+                .category("Stress")
+                .instructions("Stir")
+                .servings(4)
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Water"), new Ingredient("Salt")))
+                .build();
+    }
+}
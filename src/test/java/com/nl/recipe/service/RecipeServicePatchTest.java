@@ -0,0 +1,81 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipePatchRequest;
+import com.nl.recipe.repository.CapturingStatementInspector;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type RecipeServicePatchTest Checks the sql a patch emits: only the changed columns are updated and only the
+ * ingredient links that changed are written.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:recipe-patch-test",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.nl.recipe.repository.CapturingStatementInspector"})
+class RecipeServicePatchTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Test
+    @DisplayName("patchRecipeById : GIVEN only new instructions THEN updates the instructions column alone")
+    void patchInstructions() {
+        Recipe recipe = recipeService.addRecipe(recipe());
+
+        CapturingStatementInspector.clear();
+        Recipe patched = recipeService.patchRecipeById(recipe.getRecipeId(), RecipePatchRequest.builder().instructions("Simmer").build());
+
+        assertThat(patched.getInstructions()).isEqualTo("Simmer");
+        assertThat(patched.getVersion()).isEqualTo(recipe.getVersion() + 1);
+        assertThat(writes()).containsExactly("update recipes set instructions=?,version=? where recipe_id=? and version=?");
+    }
+
+    @Test
+    @DisplayName("patchRecipeById : GIVEN the new ingredients THEN removes and adds only the changed links")
+    void patchIngredients() {
+        Recipe recipe = recipeService.addRecipe(recipe());
+
+        CapturingStatementInspector.clear();
+        Recipe patched = recipeService.patchRecipeById(recipe.getRecipeId(), RecipePatchRequest.builder()
+                .ingredients(List.of(new Ingredient("Water"), new Ingredient("Pepper")))
+                .build());
+
+        assertThat(patched.getIngredients()).extracting(Ingredient::getName).containsExactlyInAnyOrder("Water", "Pepper");
+        assertThat(recipeService.getRecipe(recipe.getRecipeId()).getIngredients()).extracting(Ingredient::getName)
+                .containsExactly("Pepper", "Water");
+        assertThat(writes()).containsExactlyInAnyOrder(
+                "update recipes set version=? where recipe_id=? and version=?",
+                "delete from recipe_ingredient where recipe_id=? and ingredient_id=?",
+                "insert into recipe_ingredient (recipe_id,ingredient_id) values (?,?)");
+    }
+
+    /**
+     * Statements written to the recipe tables, new ingredient dictionary entries are left out.
+     */
+    private static List<String> writes() {
+        return CapturingStatementInspector.statements().stream()
+                .filter(sql -> !sql.toLowerCase(Locale.ROOT).startsWith("select"))
+                .filter(sql -> sql.contains("recipe"))
+                .toList();
+    }
+
+    private static Recipe recipe() {
+        return Recipe.builder()
+                .recipeName("Patched Soup " + UUID.randomUUID())
+                .category("Patch")
+                .instructions("Boil")
+                .servings(2)
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Water"), new Ingredient("Salt")))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.nl.recipe.service;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeSummary;
+import com.nl.recipe.model.RecipesFilterRequest;
+import com.nl.recipe.repository.CapturingStatementInspector;
+import org.assertj.core.util.Sets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type RecipeServiceSummaryTest Checks the sql of sparse responses: only the requested columns are selected and the
+ * ingredients are only joined when requested.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:recipe-summary-test",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.nl.recipe.repository.CapturingStatementInspector"})
+class RecipeServiceSummaryTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Test
+    @DisplayName("searchRecipeSummaries : GIVEN name and category THEN selects only their columns without the ingredients")
+    void searchRecipeSummaries() {
+        Recipe recipe = recipeService.addRecipe(recipe("Summary Soup", "Soups"));
+        RecipesFilterRequest request = new RecipesFilterRequest();
+        request.setCategory("Soups");
+
+        CapturingStatementInspector.clear();
+        List<RecipeSummary> summaries = recipeService.searchRecipeSummaries(request, "name", null, 10, false, "recipeName,category").getRecipes();
+
+        assertThat(summaries).containsExactly(new RecipeSummary(recipe.getRecipeId(), "Summary Soup", "Soups", null, null, null, null));
+        assertThat(CapturingStatementInspector.statements()).hasSize(2)
+                .anyMatch(sql -> sql.startsWith("select r1_0.recipe_id,r1_0.recipe_name,r1_0.category from recipes r1_0 where"))
+                .noneMatch(sql -> sql.contains("recipe_ingredient"));
+    }
+
+    @Test
+    @DisplayName("getRecipeSummaries : GIVEN the ingredients THEN reads them with one join over the page")
+    void getRecipeSummariesWithIngredients() {
+        Recipe recipe = recipeService.addRecipe(recipe("Summary Stew", "Stews"));
+
+        CapturingStatementInspector.clear();
+        List<RecipeSummary> summaries = recipeService.getRecipeSummaries(null, RecipeService.MAX_PAGE_SIZE, "ingredients").getRecipes();
+
+        assertThat(summaries).filteredOn(summary -> summary.getRecipeId().equals(recipe.getRecipeId()))
+                .singleElement()
+                .satisfies(summary -> {
+                    assertThat(summary.getRecipeName()).isNull();
+                    assertThat(summary.getIngredients()).extracting(Ingredient::getName).containsExactly("Salt", "Water");
+                });
+        assertThat(CapturingStatementInspector.statements()).hasSize(3);
+        assertThat(CapturingStatementInspector.statements()).filteredOn(sql -> sql.contains("recipe_ingredient")).hasSize(1);
+    }
+
+    private static Recipe recipe(String recipeName, String category) {
+        return Recipe.builder()
+                .recipeName(recipeName)
+                .category(category)
+                .instructions("Boil")
+                .servings(2)
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Water"), new Ingredient("Salt")))
+                .build();
+    }
+}
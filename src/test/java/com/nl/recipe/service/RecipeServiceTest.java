@@ -1,27 +1,60 @@
 package com.nl.recipe.service;
 
+import com.nl.recipe.cache.CatalogVersion;
+import com.nl.recipe.cache.SearchResultCache;
+import com.nl.recipe.exception.InvalidCursorException;
+import com.nl.recipe.exception.InvalidSearchException;
 import com.nl.recipe.exception.RecipeExistsException;
+import com.nl.recipe.event.RecipeChangedEvent;
+import com.nl.recipe.index.FacetCounter;
+import com.nl.recipe.index.FullTextIndex;
+import com.nl.recipe.index.IngredientIndex;
+import com.nl.recipe.model.FacetedSearchResult;
 import com.nl.recipe.model.Ingredient;
 import com.nl.recipe.model.Recipe;
+import com.nl.recipe.model.RecipeCursor;
+import com.nl.recipe.model.RecipeFacets;
+import com.nl.recipe.model.RecipeIdFilter;
+import com.nl.recipe.model.RecipeField;
+import com.nl.recipe.model.RecipePage;
+import com.nl.recipe.model.RecipePatchRequest;
+import com.nl.recipe.model.RecipeSort;
+import com.nl.recipe.model.RecipeSummary;
 import com.nl.recipe.model.RecipesFilterRequest;
+import com.nl.recipe.model.SearchCursor;
 import com.nl.recipe.repository.RecipeFilterRepository;
 import com.nl.recipe.repository.RecipeRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.sql.SQLException;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static com.nl.recipe.utils.RecipeFactory.getRecipe;
 import static com.nl.recipe.utils.RecipeFactory.getSavedRecipe;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @Nested
@@ -37,31 +70,145 @@ class RecipeServiceTest {
     @Mock
     private RecipeFilterRepository recipeFilterRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private IngredientIndex ingredientIndex;
+
+    @Mock
+    private FullTextIndex fullTextIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IngredientDictionary ingredientDictionary;
+
+    @Mock
+    private FacetCounter facetCounter;
+
+    @Spy
+    private SearchResultCache searchResultCache = new SearchResultCache(new NoOpCacheManager(), new CatalogVersion());
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
     @Test
     @DisplayName("addRecipe : GIVEN a recipe THEN saves the recipe in database")
     void addRecipe() {
-        when(recipeRepository.existsByRecipeName(anyString())).thenReturn(false);
-        when(recipeRepository.save(getRecipe())).thenReturn(getSavedRecipe());
+        when(ingredientDictionary.resolve(any())).thenAnswer(invocation -> new LinkedHashSet<>(invocation.getArgument(0)));
+        when(recipeRepository.saveAndFlush(getRecipe())).thenReturn(getSavedRecipe());
         Recipe recipesList = recipeService.addRecipe(getRecipe());
         assertThat(recipesList.getRecipeName()).isEqualTo("Banana Bread");
+        verify(eventPublisher).publishEvent(any(RecipeChangedEvent.class));
     }
 
     @Test
     @DisplayName("addExistingRecipe : GIVEN a recipe which already exists  THEN returns an Exception with message")
     void addExistingRecipe() {
-        when(recipeRepository.existsByRecipeName(anyString())).thenReturn(true);
+        when(recipeRepository.saveAndFlush(any())).thenThrow(constraintViolation("PUBLIC.UK_RECIPES_RECIPE_NAME_INDEX_1"));
         assertThatThrownBy(() -> recipeService.addRecipe(getRecipe()))
                 .isInstanceOf(RecipeExistsException.class)
                 .hasMessage("Recipe already exist with Banana Bread");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("addRecipe : GIVEN a constraint violation other than the recipe name THEN rethrows it")
+    void addRecipeWithOtherViolation() {
+        when(recipeRepository.saveAndFlush(any())).thenThrow(constraintViolation("FK_RECIPE_INGREDIENT_INGREDIENT"));
+        assertThatThrownBy(() -> recipeService.addRecipe(getRecipe()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
     }
 
     @Test
     @DisplayName("getAllRecipes : Fetches all the available recipes` in the database")
     void getAllRecipes() {
         List<Recipe> recipeList = Collections.singletonList(getSavedRecipe());
-        when(recipeRepository.findAll()).thenReturn(recipeList);
-        List<Recipe> recipesList = recipeService.getAllRecipes();
-        assertThat(recipesList).hasSize(1);
+        when(recipeRepository.findFirstPage(Limit.of(RecipeService.DEFAULT_PAGE_SIZE + 1))).thenReturn(recipeList);
+        RecipePage<Recipe> recipePage = recipeService.getAllRecipes(null, RecipeService.DEFAULT_PAGE_SIZE);
+        assertThat(recipePage.getRecipes()).hasSize(1);
+        assertThat(recipePage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN more recipes than the page size THEN returns a page and the cursor after its last recipe")
+    void getAllRecipesWithNextPage() {
+        Recipe first = getSavedRecipe();
+        Recipe second = getSavedRecipe().toBuilder().recipeName("Carrot Cake").build();
+        when(recipeRepository.findFirstPage(Limit.of(2))).thenReturn(List.of(first, second));
+        RecipePage<Recipe> recipePage = recipeService.getAllRecipes(null, 1);
+        assertThat(recipePage.getRecipes()).containsExactly(first);
+        assertThat(RecipeCursor.decode(recipePage.getNextCursor())).isEqualTo(RecipeCursor.of(first));
+
+        when(recipeRepository.findPageAfter(first.getRecipeName(), first.getRecipeId(), Limit.of(2))).thenReturn(List.of(second));
+        RecipePage<Recipe> nextPage = recipeService.getAllRecipes(recipePage.getNextCursor(), 1);
+        assertThat(nextPage.getRecipes()).containsExactly(second);
+        assertThat(nextPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN a page size above the maximum THEN caps the page size")
+    void getAllRecipesCapsPageSize() {
+        when(recipeRepository.findFirstPage(Limit.of(RecipeService.MAX_PAGE_SIZE + 1))).thenReturn(Collections.emptyList());
+        assertThat(recipeService.getAllRecipes(null, 100_000).getRecipes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("getRecipeSummaries : GIVEN fields THEN reads only those fields of the page in name order")
+    void getRecipeSummaries() {
+        RecipeCursor first = new RecipeCursor("a", "Banana Bread");
+        RecipeCursor second = new RecipeCursor("b", "Carrot Cake");
+        when(recipeRepository.findFirstPagePositions(Limit.of(2))).thenReturn(List.of(first, second));
+        Set<RecipeField> fields = EnumSet.of(RecipeField.RECIPE_ID, RecipeField.RECIPE_NAME, RecipeField.CATEGORY);
+        RecipeSummary summary = new RecipeSummary("a", "Banana Bread", "Desert", null, null, null, null);
+        when(recipeFilterRepository.findRecipeSummaries(List.of("a"), fields)).thenReturn(List.of(summary));
+
+        RecipePage<RecipeSummary> recipePage = recipeService.getRecipeSummaries(null, 1, "recipeName, Category");
+
+        assertThat(recipePage.getRecipes()).containsExactly(summary);
+        assertThat(RecipeCursor.decode(recipePage.getNextCursor())).isEqualTo(first);
+        verify(recipeRepository, never()).findFirstPage(any());
+    }
+
+    @Test
+    @DisplayName("searchRecipeSummaries : GIVEN an unknown field THEN returns an Exception")
+    void searchRecipeSummariesWithUnknownField() {
+        assertThatThrownBy(() -> recipeService.searchRecipeSummaries(new RecipesFilterRequest(), null, null, 10, true, "recipeName,calories"))
+                .isInstanceOf(InvalidSearchException.class);
+        verifyNoInteractions(recipeFilterRepository);
+    }
+
+    @Test
+    @DisplayName("getAllRecipes : GIVEN a cursor not issued by the api THEN returns an Exception")
+    void getAllRecipesWithInvalidCursor() {
+        assertThatThrownBy(() -> recipeService.getAllRecipes("not a cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("exportRecipes : Hands every recipe to the consumer and detaches it afterwards")
+    void exportRecipes() {
+        Recipe first = getSavedRecipe();
+        Recipe second = getSavedRecipe().toBuilder().recipeName("Carrot Cake").build();
+        when(recipeRepository.streamAll()).thenReturn(Stream.of(first, second));
+        List<Recipe> exported = new ArrayList<>();
+        long count = recipeService.exportRecipes(exported::add);
+        assertEquals(2, count);
+        assertThat(exported).containsExactly(first, second);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
     }
 
     @Test
@@ -72,23 +219,67 @@ class RecipeServiceTest {
         ingredient.setName("Dry fruits");
         recipe.getIngredients().add(ingredient);
         when(recipeRepository.findById(recipe.getRecipeId())).thenReturn(Optional.of(recipe));
+        when(ingredientDictionary.resolve(any())).thenAnswer(invocation -> new LinkedHashSet<>(invocation.getArgument(0)));
         when(recipeRepository.save(recipe)).thenReturn(recipe);
         Recipe recipesList = recipeService.updateRecipeById(recipe);
         assertThat(recipesList.getIngredients()).hasSize(4);
     }
 
+    @Test
+    @DisplayName("patchRecipeById : GIVEN some fields and the new ingredients THEN changes only those and swaps the ingredients by difference")
+    void patchRecipeById() {
+        Recipe recipe = getSavedRecipe();
+        when(recipeRepository.findById(recipe.getRecipeId())).thenReturn(Optional.of(recipe));
+        when(ingredientDictionary.resolve(any())).thenReturn(new LinkedHashSet<>(List.of(new Ingredient(1, "Flour"), new Ingredient(4, "Egg"))));
+        RecipePatchRequest patch = RecipePatchRequest.builder()
+                .instructions("Steam")
+                .ingredients(List.of(new Ingredient("Flour"), new Ingredient("Egg")))
+                .build();
+
+        Recipe patched = recipeService.patchRecipeById(recipe.getRecipeId(), patch);
+
+        assertThat(patched.getInstructions()).isEqualTo("Steam");
+        assertThat(patched.getCategory()).isEqualTo("Desert");
+        assertThat(patched.getServings()).isEqualTo(2);
+        assertThat(patched.getIngredients()).extracting(Ingredient::getName).containsExactly("Flour", "Egg");
+        verify(recipeRepository).flush();
+        verify(eventPublisher).publishEvent(any(RecipeChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("patchRecipeById : GIVEN a patch based on a stale version THEN returns an Exception without flushing")
+    void patchRecipeByIdWithStaleVersion() {
+        Recipe recipe = getSavedRecipe().toBuilder().version(3L).build();
+        when(recipeRepository.findById(recipe.getRecipeId())).thenReturn(Optional.of(recipe));
+        assertThatThrownBy(() -> recipeService.patchRecipeById(recipe.getRecipeId(), RecipePatchRequest.builder().servings(4).version(2L).build()))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(recipe.getServings()).isEqualTo(2);
+        verify(recipeRepository, never()).flush();
+    }
+
+    @Test
+    @DisplayName("updateRecipeById : GIVEN a recipe with a stale version THEN returns an Exception without saving")
+    void updateRecipeByIdWithStaleVersion() {
+        Recipe recipe = getSavedRecipe().toBuilder().version(3L).build();
+        when(recipeRepository.findById(recipe.getRecipeId())).thenReturn(Optional.of(recipe));
+        assertThatThrownBy(() -> recipeService.updateRecipeById(recipe.toBuilder().version(2L).build()))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(recipeRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     @DisplayName("deleteRecipeById : GIVEN a recipeId  THEN deletes that from the database")
     void deleteRecipeById() {
         Recipe recipe = getSavedRecipe();
         String recipeId = recipe.getRecipeId();
-        doNothing().when(recipeRepository).deleteById(recipeId);
-        when(recipeRepository.existsById(recipeId)).thenReturn(true);
+        when(recipeRepository.deleteRecipes(List.of(recipeId))).thenReturn(1);
 
         // Act
         Boolean result = recipeService.deleteRecipeById(recipeId);
         // Assert
-        verify(recipeRepository, times(1)).deleteById(recipeId);
+        verify(recipeRepository, times(1)).deleteRecipes(List.of(recipeId));
+        verify(eventPublisher).publishEvent(any(RecipeChangedEvent.class));
         assertTrue(result, "The recipe should be deleted and return TRUE");
     }
 
@@ -97,16 +288,36 @@ class RecipeServiceTest {
     void deleteRecipeById_RecipeDoesNotExist() {
         String nonExistingRecipeId = UUID.randomUUID().toString();
         // Arrange
-        when(recipeRepository.existsById(nonExistingRecipeId)).thenReturn(false);
+        when(recipeRepository.deleteRecipes(List.of(nonExistingRecipeId))).thenReturn(0);
 
         // Act
         Boolean result = recipeService.deleteRecipeById(nonExistingRecipeId);
 
         // Assert
-        verify(recipeRepository, never()).deleteById(nonExistingRecipeId);
+        verifyNoInteractions(eventPublisher);
         assertFalse(result, "The recipe should not be deleted and return FALSE");
     }
 
+    @Test
+    @DisplayName("deleteRecipesByCriteria : GIVEN a filter criteria THEN deletes the matching recipes and publishes a change per recipe")
+    void deleteRecipesByCriteria() {
+        RecipesFilterRequest request = new RecipesFilterRequest();
+        request.setCategory("Desert");
+        when(recipeFilterRepository.findRecipeIdsByCriteria(request, null)).thenReturn(List.of("1", "2"));
+        when(recipeRepository.deleteRecipes(List.of("1", "2"))).thenReturn(2);
+
+        assertThat(recipeService.deleteRecipesByCriteria(request)).isEqualTo(2);
+        verify(eventPublisher, times(2)).publishEvent(any(RecipeChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("deleteRecipesByCriteria : GIVEN a filter without criteria THEN refuses to delete")
+    void deleteRecipesByCriteriaWithoutCriteria() {
+        assertThatThrownBy(() -> recipeService.deleteRecipesByCriteria(new RecipesFilterRequest()))
+                .isInstanceOf(InvalidSearchException.class);
+        verifyNoInteractions(recipeRepository);
+    }
+
     @Test
     @DisplayName("searchRecipesByCriteria : GIVEN a few filters THEN returns the recipes matching the filter criteria")
     void searchRecipesByIngredients() {
@@ -118,12 +329,152 @@ class RecipeServiceTest {
         map.put("pepper", true);
         recipesSearchRequest.setIngredients(map);
         List<Recipe> recipeList = Collections.singletonList(getSavedRecipe());
-        when(recipeFilterRepository.filterRecipiesByCriteria(recipesSearchRequest)).thenReturn(recipeList);
+        Set<String> recipeIds = Set.of(recipeList.get(0).getRecipeId());
+        when(ingredientIndex.resolve(map)).thenReturn(RecipeIdFilter.including(recipeIds));
+        when(recipeFilterRepository.filterRecipiesByCriteria(recipesSearchRequest, RecipeIdFilter.including(recipeIds))).thenReturn(recipeList);
         List<Recipe> listRecipes = recipeService.searchRecipesByCriteria(recipesSearchRequest);
         assertEquals(1, listRecipes.size());
 
     }
 
+    @Test
+    @DisplayName("searchRecipesByCriteria : GIVEN a full text query THEN returns the matching recipes ordered by relevance")
+    void searchRecipesByQuery() {
+        Recipe first = getSavedRecipe();
+        Recipe second = getSavedRecipe().toBuilder().recipeName("Carrot Cake").build();
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        recipesSearchRequest.setQuery("oven");
+        recipesSearchRequest.setIngredients(Map.of("sugar", true));
+        when(fullTextIndex.search("oven")).thenReturn(List.of(second.getRecipeId(), "other", first.getRecipeId()));
+        when(ingredientIndex.resolve(recipesSearchRequest.getIngredients())).thenReturn(RecipeIdFilter.excluding(Set.of("other")));
+        when(recipeFilterRepository.filterRecipiesByCriteria(recipesSearchRequest, RecipeIdFilter.including(Set.of(first.getRecipeId(), second.getRecipeId()))))
+                .thenReturn(List.of(first, second));
+        assertThat(recipeService.searchRecipesByCriteria(recipesSearchRequest)).containsExactly(second, first);
+    }
+
+    @Test
+    @DisplayName("searchRecipesByCriteria : GIVEN ingredients no recipe matches THEN returns no recipes without querying the database")
+    void searchRecipesByIngredientsWithoutMatch() {
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        recipesSearchRequest.setIngredients(Map.of("pepper", true));
+        when(ingredientIndex.resolve(recipesSearchRequest.getIngredients())).thenReturn(RecipeIdFilter.including(Collections.emptySet()));
+        assertThat(recipeService.searchRecipesByCriteria(recipesSearchRequest)).isEmpty();
+        verifyNoInteractions(recipeFilterRepository);
+    }
+
+    @Test
+    @DisplayName("searchRecipes : GIVEN more matches than the page size THEN returns a page by name, its cursor and the total")
+    void searchRecipesByName() {
+        Recipe first = getSavedRecipe();
+        Recipe second = getSavedRecipe().toBuilder().recipeName("Carrot Cake").build();
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        recipesSearchRequest.setCategory("Desert");
+        SearchCursor firstPosition = new SearchCursor(RecipeSort.NAME, first.getRecipeId(), first.getRecipeName());
+        when(recipeFilterRepository.findPagePositions(recipesSearchRequest, null, RecipeSort.NAME, null, 2))
+                .thenReturn(List.of(firstPosition, new SearchCursor(RecipeSort.NAME, second.getRecipeId(), second.getRecipeName())));
+        when(recipeFilterRepository.filterRecipiesByCriteria(any(), eq(RecipeIdFilter.including(List.of(first.getRecipeId()))))).thenReturn(List.of(first));
+        when(recipeFilterRepository.countByCriteria(recipesSearchRequest, null)).thenReturn(2L);
+
+        RecipePage<Recipe> recipePage = recipeService.searchRecipes(recipesSearchRequest, null, null, 1, true);
+
+        assertThat(recipePage.getRecipes()).containsExactly(first);
+        assertThat(SearchCursor.decode(recipePage.getNextCursor(), RecipeSort.NAME)).isEqualTo(firstPosition);
+        assertThat(recipePage.getTotalCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("searchRecipes : GIVEN the last page by servings without total THEN returns no cursor and skips the count")
+    void searchRecipesByServingsWithoutTotal() {
+        Recipe recipe = getSavedRecipe();
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        recipesSearchRequest.setCategory("Desert");
+        SearchCursor after = new SearchCursor(RecipeSort.SERVINGS, "a", "1");
+        when(recipeFilterRepository.findPagePositions(recipesSearchRequest, null, RecipeSort.SERVINGS, after, RecipeService.MAX_PAGE_SIZE + 1))
+                .thenReturn(List.of(new SearchCursor(RecipeSort.SERVINGS, recipe.getRecipeId(), "4")));
+        when(recipeFilterRepository.filterRecipiesByCriteria(any(), eq(RecipeIdFilter.including(List.of(recipe.getRecipeId()))))).thenReturn(List.of(recipe));
+
+        RecipePage<Recipe> recipePage = recipeService.searchRecipes(recipesSearchRequest, "Servings", after.encode(), 1000, false);
+
+        assertThat(recipePage.getRecipes()).containsExactly(recipe);
+        assertThat(recipePage.getNextCursor()).isNull();
+        assertThat(recipePage.getTotalCount()).isNull();
+        verify(recipeFilterRepository, never()).countByCriteria(any(), any());
+    }
+
+    @Test
+    @DisplayName("searchRecipes : GIVEN a full text query THEN pages through the matches in relevance order")
+    void searchRecipesByRelevance() {
+        Recipe first = getSavedRecipe();
+        Recipe second = getSavedRecipe().toBuilder().recipeName("Carrot Cake").build();
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        recipesSearchRequest.setQuery("oven");
+        when(fullTextIndex.search("oven")).thenReturn(List.of(second.getRecipeId(), "deleted", first.getRecipeId()));
+        when(recipeFilterRepository.findRecipeIdsByCriteria(eq(recipesSearchRequest), any()))
+                .thenReturn(List.of(first.getRecipeId(), second.getRecipeId()));
+        when(recipeFilterRepository.filterRecipiesByCriteria(any(), eq(RecipeIdFilter.including(List.of(first.getRecipeId()))))).thenReturn(List.of(first));
+
+        RecipePage<Recipe> recipePage = recipeService.searchRecipes(recipesSearchRequest, null, SearchCursor.atOffset(1).encode(), 1, true);
+
+        assertThat(recipePage.getRecipes()).containsExactly(first);
+        assertThat(recipePage.getNextCursor()).isNull();
+        assertThat(recipePage.getTotalCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("searchRecipes : GIVEN an unknown sort or a cursor of another sort THEN returns an Exception")
+    void searchRecipesWithInvalidSort() {
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        assertThatThrownBy(() -> recipeService.searchRecipes(recipesSearchRequest, "calories", null, 10, true))
+                .isInstanceOf(InvalidSearchException.class);
+        assertThatThrownBy(() -> recipeService.searchRecipes(recipesSearchRequest, "relevance", null, 10, true))
+                .isInstanceOf(InvalidSearchException.class);
+        String servingsCursor = new SearchCursor(RecipeSort.SERVINGS, "a", "1").encode();
+        assertThatThrownBy(() -> recipeService.searchRecipes(recipesSearchRequest, "name", servingsCursor, 10, true))
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(recipeFilterRepository);
+    }
+
+    @Test
+    @DisplayName("searchRecipesWithFacets : GIVEN no filter THEN returns a page of recipes and the catalog facets from the counters")
+    void searchRecipesWithFacetsWithoutFilter() {
+        Recipe recipe = getSavedRecipe();
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        RecipeFacets facets = new RecipeFacets(Map.of("desert", 1L), Map.of(2, 1L), Map.of("flour", 1L));
+        when(recipeFilterRepository.findPagePositions(recipesSearchRequest, null, RecipeSort.NAME, null, RecipeService.DEFAULT_PAGE_SIZE + 1))
+                .thenReturn(List.of(new SearchCursor(RecipeSort.NAME, recipe.getRecipeId(), recipe.getRecipeName())));
+        when(recipeFilterRepository.filterRecipiesByCriteria(any(), eq(RecipeIdFilter.including(List.of(recipe.getRecipeId()))))).thenReturn(List.of(recipe));
+        when(facetCounter.facets(RecipeService.MAX_TOP_INGREDIENTS)).thenReturn(facets);
+        FacetedSearchResult result = recipeService.searchRecipesWithFacets(recipesSearchRequest, null, null,
+                RecipeService.DEFAULT_PAGE_SIZE, 1_000);
+        assertThat(result.getRecipes()).containsExactly(recipe);
+        assertThat(result.getFacets()).isEqualTo(facets);
+        assertThat(result.getNextCursor()).isNull();
+        verify(recipeFilterRepository, never()).findRecipeIdsByCriteria(any(), any());
+    }
+
+    @Test
+    @DisplayName("searchRecipesWithFacets : GIVEN a filter THEN returns a page of recipes, its cursor and the facets of all the matching recipes")
+    void searchRecipesWithFacets() {
+        Recipe first = getSavedRecipe();
+        Recipe second = getSavedRecipe().toBuilder().recipeId("2").recipeName("Carrot Cake").build();
+        RecipesFilterRequest recipesSearchRequest = new RecipesFilterRequest();
+        recipesSearchRequest.setCategory("Desert");
+        RecipeFacets facets = new RecipeFacets(Map.of("desert", 2L), Map.of(2, 2L), Map.of("flour", 2L));
+        SearchCursor firstPosition = new SearchCursor(RecipeSort.NAME, first.getRecipeId(), first.getRecipeName());
+        when(recipeFilterRepository.findPagePositions(recipesSearchRequest, null, RecipeSort.NAME, null, 2))
+                .thenReturn(List.of(firstPosition, new SearchCursor(RecipeSort.NAME, second.getRecipeId(), second.getRecipeName())));
+        when(recipeFilterRepository.filterRecipiesByCriteria(any(), eq(RecipeIdFilter.including(List.of(first.getRecipeId()))))).thenReturn(List.of(first));
+        when(recipeFilterRepository.findRecipeIdsByCriteria(recipesSearchRequest, null))
+                .thenReturn(List.of(first.getRecipeId(), second.getRecipeId()));
+        when(facetCounter.facets(List.of(first.getRecipeId(), second.getRecipeId()), RecipeService.DEFAULT_TOP_INGREDIENTS)).thenReturn(facets);
+        FacetedSearchResult result = recipeService.searchRecipesWithFacets(recipesSearchRequest, null, null, 1,
+                RecipeService.DEFAULT_TOP_INGREDIENTS);
+        assertThat(result.getRecipes()).containsExactly(first);
+        assertThat(SearchCursor.decode(result.getNextCursor(), RecipeSort.NAME)).isEqualTo(firstPosition);
+        assertThat(result.getFacets()).isEqualTo(facets);
+        verify(recipeFilterRepository, never()).countByCriteria(any(), any());
+    }
+
     @Test
     @DisplayName("getRecipesByCategory : GIVEN a category THEN returns all the recipes under the given category")
     void getRecipesByCategory() {
@@ -0,0 +1,85 @@
+package com.nl.recipe.snapshot;
+
+import com.nl.recipe.model.Ingredient;
+import com.nl.recipe.model.Recipe;
+import com.nl.recipe.service.RecipeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Type RecipeSnapshotTest Checks that a written snapshot restores the same catalog into an empty database.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:recipe-snapshot-test",
+        "recipe.snapshot.path=target/recipe-snapshot-test/recipes.snapshot"})
+class RecipeSnapshotTest {
+
+    @Autowired
+    private RecipeSnapshot recipeSnapshot;
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("restore : GIVEN a written snapshot and an emptied database THEN restores the same catalog")
+    void writeAndRestore() throws IOException {
+        Files.deleteIfExists(recipeSnapshot.getPath());
+        assertThat(recipeSnapshot.restore()).isNull();
+
+        recipeService.addRecipe(recipe("Snapshot Soup", "Water", "Salt"));
+        Recipe stew = recipeService.addRecipe(recipe("Snapshot Stew", "Water", "Beef", "Carrot"));
+        recipeService.updateRecipeById(stew.toBuilder().instructions("Simmer for two hours").build());
+        List<Recipe> before = catalog();
+
+        SnapshotSummary written = recipeSnapshot.write();
+        assertThat(written.getRecipes()).isEqualTo(2);
+        assertThat(written.getIngredients()).isEqualTo(4);
+        assertThat(written.getBytes()).isEqualTo(Files.size(recipeSnapshot.getPath()));
+        assertThatThrownBy(recipeSnapshot::restore).isInstanceOf(IllegalStateException.class);
+
+        jdbcTemplate.update("DELETE FROM recipe_ingredient");
+        jdbcTemplate.update("DELETE FROM recipes");
+        jdbcTemplate.update("DELETE FROM ingredient");
+        SnapshotSummary restored = recipeSnapshot.restore();
+        assertThat(restored.getRecipes()).isEqualTo(2);
+        assertThat(catalog()).usingRecursiveComparison().isEqualTo(before);
+
+        Recipe porridge = recipeService.addRecipe(recipe("Snapshot Porridge", "Oats", "water"));
+        assertThat(porridge.getIngredients()).extracting(Ingredient::getName).containsExactly("Oats", "Water");
+    }
+
+    private List<Recipe> catalog() {
+        List<Recipe> recipes = new ArrayList<>();
+        recipeService.exportRecipes(recipe -> recipes.add(recipe.toBuilder()
+                .ingredients(recipe.getIngredients().stream().sorted(Comparator.comparing(Ingredient::getIngredientId)).collect(Collectors.toCollection(LinkedHashSet::new)))
+                .build()));
+        recipes.sort(Comparator.comparing(Recipe::getRecipeName));
+        return recipes;
+    }
+
+    private static Recipe recipe(String recipeName, String... ingredients) {
+        return Recipe.builder()
+                .recipeName(recipeName)
+                .category("Snapshot")
+                .instructions("Boil")
+                .servings(2)
+                .ingredients(Arrays.stream(ingredients).map(Ingredient::new).collect(Collectors.toCollection(LinkedHashSet::new)))
+                .build();
+    }
+}
@@ -3,7 +3,7 @@ package com.nl.recipe.utils;
 import com.nl.recipe.model.Ingredient;
 import com.nl.recipe.model.Recipe;
 import lombok.experimental.UtilityClass;
-import org.assertj.core.util.Lists;
+import org.assertj.core.util.Sets;
 
 import java.util.UUID;
 
@@ -16,7 +16,7 @@ public class RecipeFactory {
                 .servings(2)
                 .instructions("Oven")
                 .category("Desert")
-                .ingredients(Lists.newArrayList(new Ingredient("Flour"),
+                .ingredients(Sets.newLinkedHashSet(new Ingredient("Flour"),
                         new Ingredient("Banana"),
                         new Ingredient("Sugar")))
                 .build();
@@ -29,9 +29,9 @@ public class RecipeFactory {
                 .instructions("Oven")
                 .category("Desert")
                 .recipeId(UUID.randomUUID().toString())
-                .ingredients(Lists.newArrayList(new Ingredient(UUID.randomUUID(), "Flour"),
-                        new Ingredient(UUID.randomUUID(), "Banana"),
-                        new Ingredient(UUID.randomUUID(), "Sugar")))
+                .ingredients(Sets.newLinkedHashSet(new Ingredient(1, "Flour"),
+                        new Ingredient(2, "Banana"),
+                        new Ingredient(3, "Sugar")))
                 .build();
     }
 }